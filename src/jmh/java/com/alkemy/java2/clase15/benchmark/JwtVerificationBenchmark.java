@@ -0,0 +1,85 @@
+package com.alkemy.java2.clase15.benchmark;
+
+import com.alkemy.java2.clase15.authsecurity.dto.VerifiedToken;
+import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.VerifiedTokenCache;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU por request de autenticar un JWT en el filtro.
+ * <ul>
+ *   <li>{@code legacyParsePerClaim}: lo que hacía el filtro antes, extractUsername + isTokenValid
+ *   (subject y expiración), tres parseos con un parser nuevo cada uno.</li>
+ *   <li>{@code singleParse}: un parseo con el parser construido al iniciar, sin cache.</li>
+ *   <li>{@code verifyCached}: {@link JwtService#verify} con la verificación ya cacheada, el caso de un
+ *   cliente que reusa su token.</li>
+ * </ul>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtVerificationBenchmark -prof gc"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+  private static final String SECRET = "TuClaveSecretaMuySeguraYCompleja123CambiarEnProduccion";
+
+  private JwtService jwtService;
+  private SecretKey signingKey;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtService = new JwtService(new VerifiedTokenCache(1_000, new SimpleMeterRegistry()));
+    ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+    ReflectionTestUtils.setField(jwtService, "expirationMs", TimeUnit.HOURS.toMillis(1));
+    ReflectionTestUtils.invokeMethod(jwtService, "init");
+    signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    token = jwtService.generateToken(User.builder()
+        .username("user@email.com")
+        .roles(Set.of(Role.USER))
+        .build());
+    jwtService.verify(token);
+  }
+
+  @Benchmark
+  public void legacyParsePerClaim(Blackhole blackhole) {
+    for (int i = 0; i < 3; i++) {
+      blackhole.consume(Jwts.parser().verifyWith(signingKey).build().parseSignedClaims(token).getPayload());
+    }
+  }
+
+  @Benchmark
+  public Claims singleParse() {
+    return jwtService.extractClaim(token, claims -> claims);
+  }
+
+  @Benchmark
+  public VerifiedToken verifyCached() {
+    return jwtService.verify(token);
+  }
+}
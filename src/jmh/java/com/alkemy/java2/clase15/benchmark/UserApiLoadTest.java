@@ -0,0 +1,204 @@
+package com.alkemy.java2.clase15.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generador de carga de lazo cerrado contra la app ya levantada: cada cliente manda un request, espera la
+ * respuesta y manda el siguiente. Por cada nivel de concurrencia hace un warmup que se descarta y después
+ * mide throughput (requests OK por segundo), p50, p99 y máximo de latencia y cantidad de errores.
+ * <p>
+ * Opciones ({@code clave=valor} en jmh.args):
+ * <ul>
+ *   <li>{@code url}: base de la app, por defecto {@code http://localhost:8080}.</li>
+ *   <li>{@code path}: endpoint a pegarle, por defecto {@code /api/v1/users?limit=20} (lectura de Mongo).</li>
+ *   <li>{@code concurrency}: niveles separados por coma, por defecto {@code 50,200,800}.</li>
+ *   <li>{@code warmup} y {@code duration}: segundos por nivel, por defecto 10 y 30.</li>
+ *   <li>{@code token}: JWT a usar; si no viene, registra un usuario nuevo y usa el token que devuelve.
+ *   {@code token=none} manda los requests sin Authorization.</li>
+ * </ul>
+ * La app se levanta desde el jar y no con spring-boot:run: así no corre devtools, que reinicia el contexto si
+ * el test-compile del generador recompila clases, y el perfil benchmark no pisa las clases compiladas.
+ * <p>
+ * Threads de plataforma vs virtuales (JDK 21 para las dos corridas):
+ * <pre>
+ * mvn -Pvirtual-threads -DskipTests package
+ * java -jar target/clase15-0.0.1-SNAPSHOT.jar
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.alkemy.java2.clase15.benchmark.UserApiLoadTest \
+ *     -Djmh.args="concurrency=50,200,800,1600"
+ * </pre>
+ * y repetir con la app levantada con
+ * {@code java -Dspring.threads.virtual.enabled=true -Djdk.tracePinnedThreads=short -jar target/clase15-0.0.1-SNAPSHOT.jar}.
+ * Con threads de plataforma Tomcat atiende hasta {@code server.tomcat.threads.max} (200) a la vez y el resto
+ * espera en la cola, así que por encima de ese nivel el p99 crece con la concurrencia; con threads virtuales
+ * el límite pasa a ser Mongo y el pool de hashing. Conviene correr el generador en otra máquina, o al menos
+ * con la misma cantidad de cores libres en las dos corridas. Esta comparación todavía no se corrió (hace falta
+ * JDK 21 y MongoDB); los resultados van en HELP.md.
+ * <p>
+ * Costo del logging: mismo generador con {@code path=/api/v1/test/hola}, que loguea en INFO en cada request,
+ * contra tres arranques del jar (con la salida a /dev/null, para que una terminal lenta no domine la medición):
+ * <ol>
+ *   <li>{@code java -jar target/clase15-0.0.1-SNAPSHOT.jar}: log4j2.xml, sincrónico a archivo y consola.</li>
+ *   <li>{@code ... --spring.profiles.active=prod}: log4j2-prod.xml, async y garbage-free.</li>
+ *   <li>{@code ... --spring.profiles.active=prod --logging.level.root=OFF}: sin logging, la referencia.</li>
+ * </ol>
+ * La diferencia de req/s y p99 entre la 1 o la 2 y la 3 es lo que cuesta el logging en el hot path.
+ */
+public final class UserApiLoadTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private UserApiLoadTest() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parse(args);
+    URI base = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+    String path = options.getOrDefault("path", "/api/v1/users?limit=20");
+    int[] levels = Arrays.stream(options.getOrDefault("concurrency", "50,200,800").split(","))
+        .map(String::trim)
+        .mapToInt(Integer::parseInt)
+        .toArray();
+    Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+    Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+
+    HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    String token = options.containsKey("token") ? options.get("token") : register(client, base);
+
+    HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(path))
+        .timeout(Duration.ofSeconds(30))
+        .GET();
+    if (!"none".equals(token)) {
+      builder.header("Authorization", "Bearer " + token);
+    }
+    HttpRequest request = builder.build();
+
+    System.out.printf("GET %s, warmup %ds, medición %ds por nivel%n", request.uri(), warmup.toSeconds(),
+        duration.toSeconds());
+    System.out.printf("%12s %12s %10s %10s %10s %8s%n", "concurrency", "req/s", "p50 ms", "p99 ms", "max ms",
+        "errors");
+    for (int level : levels) {
+      run(client, request, level, warmup);
+      Result result = run(client, request, level, duration);
+      System.out.printf("%12d %12.1f %10.2f %10.2f %10.2f %8d%n", level,
+          result.ok / (double) duration.toSeconds(), result.percentileMs(0.50), result.percentileMs(0.99),
+          result.percentileMs(1.0), result.errors);
+    }
+  }
+
+  private static String register(HttpClient client, URI base) throws IOException, InterruptedException {
+    String username = "loadtest-" + System.currentTimeMillis() + "@email.com";
+    String body = MAPPER.writeValueAsString(Map.of(
+        "name", "Load Test",
+        "username", username,
+        "password", "loadtest123"));
+    HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/api/v1/auth/register"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build(), HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Register failed with " + response.statusCode() + ": " + response.body());
+    }
+    return MAPPER.readTree(response.body()).get("token").asText();
+  }
+
+  private static Result run(HttpClient client, HttpRequest request, int concurrency, Duration duration)
+      throws Exception {
+    long deadline = System.nanoTime() + duration.toNanos();
+    ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+    try {
+      List<Future<Result>> futures = new ArrayList<>(concurrency);
+      for (int i = 0; i < concurrency; i++) {
+        futures.add(clients.submit(() -> loop(client, request, deadline)));
+      }
+      Result total = new Result();
+      for (Future<Result> future : futures) {
+        total.merge(future.get());
+      }
+      return total;
+    } finally {
+      clients.shutdownNow();
+    }
+  }
+
+  private static Result loop(HttpClient client, HttpRequest request, long deadline) {
+    Result result = new Result();
+    while (System.nanoTime() < deadline) {
+      long start = System.nanoTime();
+      try {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status < 400) {
+          result.record(System.nanoTime() - start);
+        } else {
+          result.errors++;
+        }
+      } catch (IOException e) {
+        result.errors++;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return result;
+  }
+
+  private static Map<String, String> parse(String[] args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int eq = arg.indexOf('=');
+      if (eq <= 0) {
+        throw new IllegalArgumentException("Expected key=value, got: " + arg);
+      }
+      options.put(arg.substring(0, eq), arg.substring(eq + 1));
+    }
+    return options;
+  }
+
+  /** Latencias en nanos de los requests OK de un cliente (o de todos, después de merge). */
+  private static final class Result {
+    private long[] latencies = new long[1024];
+    private int ok;
+    private long errors;
+
+    void record(long nanos) {
+      if (ok == latencies.length) {
+        latencies = Arrays.copyOf(latencies, ok * 2);
+      }
+      latencies[ok++] = nanos;
+    }
+
+    void merge(Result other) {
+      latencies = Arrays.copyOf(latencies, Math.max(latencies.length, ok + other.ok));
+      System.arraycopy(other.latencies, 0, latencies, ok, other.ok);
+      ok += other.ok;
+      errors += other.errors;
+    }
+
+    double percentileMs(double percentile) {
+      if (ok == 0) {
+        return Double.NaN;
+      }
+      long[] sorted = Arrays.copyOf(latencies, ok);
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile * ok) - 1;
+      return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+  }
+}
@@ -1,15 +1,19 @@
 package com.alkemy.java2.clase15.authsecurity;
 
+import com.alkemy.java2.clase15.authsecurity.dto.VerifiedToken;
 import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.UserStatusService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -21,17 +25,31 @@ import java.util.Set;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class JwtAuthFilter extends OncePerRequestFilter {
 
   private static final String BEARER_PREFIX = "Bearer ";
   private final JwtService jwtService;
   private final UserDetailsService userDetailsService;
+  private final UserStatusService userStatusService;
+
+  // En modo stateless el principal se arma con los claims del token, sin leer el usuario completo
+  private final boolean stateless;
 
   private static final Set<String> WHITELISTED_PATHS = Set.of(
       "/swagger-ui", "/v3/api-docs", "/api-docs", "/favicon.ico"
   );
 
+  public JwtAuthFilter(JwtService jwtService,
+                       UserDetailsService userDetailsService,
+                       UserStatusService userStatusService,
+                       @Value("${app.jwt.stateless:false}") boolean stateless) {
+    this.jwtService = jwtService;
+    this.userDetailsService = userDetailsService;
+    this.userStatusService = userStatusService;
+    this.stateless = stateless;
+  }
+
   @Override
   protected void doFilterInternal(HttpServletRequest request,
                                   HttpServletResponse response,
@@ -47,17 +65,24 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     String token = extractToken(request);
     if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
       try {
-        String username = jwtService.extractUsername(token);
-        UserDetails user = userDetailsService.loadUserByUsername(username);
+        VerifiedToken verified = jwtService.verify(token);
+        String username = verified.getSubject();
 
-        if (jwtService.isTokenValid(token, user)) {
-          var auth = new UsernamePasswordAuthenticationToken(
-              user, null, user.getAuthorities());
-          auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-          SecurityContextHolder.getContext().setAuthentication(auth);
+        if (username != null) {
+          UserDetails user = stateless
+              ? principalFromClaims(verified)
+              : userDetailsService.loadUserByUsername(username);
+          if (user != null && username.equals(user.getUsername())) {
+            var auth = new UsernamePasswordAuthenticationToken(
+                user, null, user.getAuthorities());
+            auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(auth);
+          }
         }
       } catch (Exception e) {
-        log.error("JWT authentication failed", e);
+        // Tokens inválidos los manda cualquiera: una línea por rechazo, el stack trace solo en debug
+        log.warn("JWT authentication failed: {}", e.getMessage());
+        log.debug("JWT authentication failure", e);
         if (!response.isCommitted()) {
           response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
           response.getWriter().write("Authentication failed");
@@ -69,6 +94,18 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     filterChain.doFilter(request, response);
   }
 
+  // Devuelve null si el usuario fue desactivado o borrado (revocación acotada por el TTL del estado)
+  private UserDetails principalFromClaims(VerifiedToken verified) {
+    if (!userStatusService.isActive(verified.getSubject())) {
+      log.warn("Token de usuario inactivo o inexistente: {}", verified.getSubject());
+      return null;
+    }
+    return User.withUsername(verified.getSubject())
+        .password("")
+        .authorities(verified.getAuthorities())
+        .build();
+  }
+
   private String extractToken(HttpServletRequest request) {
     String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
     return (authHeader != null && authHeader.startsWith(BEARER_PREFIX))
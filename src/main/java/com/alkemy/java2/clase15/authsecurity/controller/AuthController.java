@@ -3,9 +3,12 @@ package com.alkemy.java2.clase15.authsecurity.controller;
 import com.alkemy.java2.clase15.authsecurity.dto.AuthRequest;
 import com.alkemy.java2.clase15.authsecurity.dto.AuthResponse;
 import com.alkemy.java2.clase15.authsecurity.service.AuthService;
+import com.alkemy.java2.clase15.authsecurity.service.LoginRateLimiter;
 import com.alkemy.java2.clase15.dto.UserDTO;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -15,11 +18,15 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @RequestMapping("/api/v1/auth")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AuthController {
   private final AuthService authService;
+  private final LoginRateLimiter loginRateLimiter;
   @PostMapping("/register")
   public ResponseEntity<AuthResponse> register(@Valid @RequestBody UserDTO request) {
     return ResponseEntity.ok(authService.register(request));}
   @PostMapping("/login")
-  public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
+  public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+    // Límite por IP; el límite por username lo aplica el servicio antes de autenticar
+    loginRateLimiter.acquireForClient(httpRequest.getRemoteAddr());
     return ResponseEntity.ok(authService.authenticate(request));   }}
@@ -0,0 +1,28 @@
+package com.alkemy.java2.clase15.authsecurity.dto;
+
+import com.alkemy.java2.clase15.enums.Role;
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+// Resultado inmutable de verificar un JWT: firma y expiración ya comprobadas
+@Value
+@Builder
+public class VerifiedToken {
+  String subject;
+  List<String> roles;
+  Instant expiresAt;
+
+  // Para roles conocidos devuelve la colección compartida de Role, sin crear authorities por request
+  public Collection<GrantedAuthority> getAuthorities() {
+    return Role.authoritiesOfNames(roles);
+  }
+
+  public boolean isExpired(Instant now) {
+    return !expiresAt.isAfter(now);
+  }
+}
@@ -4,16 +4,20 @@ package com.alkemy.java2.clase15.authsecurity.service;
 import com.alkemy.java2.clase15.authsecurity.dto.AuthRequest;
 import com.alkemy.java2.clase15.authsecurity.dto.AuthResponse;
 import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.exception.UsernameAlreadyExistsException;
 import com.alkemy.java2.clase15.mapper.UserMapper;
 import com.alkemy.java2.clase15.model.User;
 import com.alkemy.java2.clase15.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,6 +25,7 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 @Slf4j // Lombok annotation for logger
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
@@ -28,22 +33,28 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserCacheInvalidator userCacheInvalidator;
+    private final LoginRateLimiter loginRateLimiter;
 
     @Override
     public AuthResponse register(UserDTO request) {
         log.debug("Intentando registrar nuevo usuario: {}", request.getUsername());
 
 
-        // Changed to use our custom exists method
-        if (userRepository.existsUserByUsername(request.getUsername())) {
-            log.warn("Username {} already exists", request.getUsername());
-            throw new RuntimeException("Username already exists");
-        }
         User user = userMapper.toEntity(request);
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         //user.setRoles(request.getRoles());
 
-        User savedUser = userRepository.save(user);
+        // Insert directo: el índice único de username resuelve duplicados sin check-then-act
+        User savedUser;
+        try {
+            savedUser = userRepository.insert(user);
+        } catch (DuplicateKeyException e) {
+            log.warn("Username {} already exists", request.getUsername());
+            throw new UsernameAlreadyExistsException(e);
+        }
+        // Un intento previo pudo dejar cacheado "usuario inexistente/inactivo"
+        userCacheInvalidator.evict(user.getUsername());
         log.info("Nuevo usuario registrado con ID: {}", savedUser.getId());
 
         String jwtToken = jwtService.generateToken(user);
@@ -55,26 +66,28 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public AuthResponse authenticate(AuthRequest request) {
         log.debug("Autenticando usuario: {}", request.getUsername());
+        // Corta antes de BCrypt: un atacante no puede quemar CPU probando passwords
+        loginRateLimiter.acquireForUsername(request.getUsername());
 
         try {
-            authenticationManager.authenticate(
+            Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             request.getUsername(),
                             request.getPassword()
                     )
             );
 
-            User user = userRepository.findByUsername(request.getUsername())
-                    .orElseThrow(() -> {
-                        log.error("Usuario no encontrado después de autenticación exitosa: {}", request.getUsername());
-                        return new UsernameNotFoundException("User not found");
-                    });
+            // El provider ya cargó el usuario (proyección de credenciales): se reusa para el token
+            if (!(authentication.getPrincipal() instanceof UserDetails user)) {
+                log.error("Principal inesperado después de autenticación exitosa: {}", request.getUsername());
+                throw new UsernameNotFoundException("User not found");
+            }
 
             String jwtToken = jwtService.generateToken(user);
             log.info("Usuario {} autenticado exitosamente", user.getUsername());
-            user.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .forEach(authority -> log.info("User authority: {}", authority));
+            if (log.isDebugEnabled()) {
+                log.debug("Authorities de {}: {}", user.getUsername(), authentication.getAuthorities());
+            }
 
             return AuthResponse.builder()
                     .token(jwtToken)
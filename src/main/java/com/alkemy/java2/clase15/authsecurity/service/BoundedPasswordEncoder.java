@@ -0,0 +1,38 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+// Ejecuta encode/matches del encoder real en el pool dedicado de hashing
+@RequiredArgsConstructor
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+  private final PasswordHashingExecutor executor;
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return executor.execute(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  // Versiones sin bloquear al llamador, para el stack reactivo
+  public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+    return executor.submit(() -> delegate.encode(rawPassword));
+  }
+
+  public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+    return executor.submit(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
@@ -0,0 +1,187 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Arma el PasswordEncoder de la aplicación calibrando el costo de cada algoritmo
+ * para que un hash tarde aproximadamente {@code app.security.password.target-ms} en este hardware.
+ *
+ * <p>Los hashes se guardan con prefijo ({bcrypt}, {pbkdf2@iteraciones}, {argon2}); los hashes BCrypt viejos
+ * sin prefijo se siguen validando. Si un hash quedó desactualizado (otro algoritmo, o menor costo
+ * en BCrypt/Argon2), {@link PasswordEncoder#upgradeEncoding} devuelve true y se re-hashea en el
+ * siguiente login.
+ *
+ * <p>PBKDF2 no se calibra: a diferencia de BCrypt y Argon2, el hash no guarda las iteraciones y
+ * {@code matches} las toma del encoder. Por eso las iteraciones son fijas
+ * ({@code app.security.password.pbkdf2.iterations}) y van en el id ({pbkdf2@310000}); un hash
+ * con otro costo se sigue validando con el suyo y pide re-hash. Los {pbkdf2} sin costo se validan
+ * con el default de Spring Security (310000).
+ */
+@Slf4j
+@Component
+public class CalibratedPasswordEncoderFactory {
+
+  private static final String BCRYPT = "bcrypt";
+  private static final String PBKDF2 = "pbkdf2";
+  private static final String ARGON2 = "argon2";
+  private static final Pattern PBKDF2_ID = Pattern.compile("^\\{" + PBKDF2 + "@(\\d{1,8})}");
+
+  private static final Set<String> ALGORITHMS = Set.of(BCRYPT, PBKDF2, ARGON2);
+  private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+  // Puntos de medición: el costo escala (casi) lineal a partir de estos parámetros
+  private static final int BCRYPT_PROBE_STRENGTH = 8;
+  private static final int ARGON2_PROBE_ITERATIONS = 2;
+  private static final int ARGON2_MEMORY_KB = 19_456;
+
+  private final PasswordHashingExecutor passwordHashingExecutor;
+  private final String algorithm;
+  private final long targetNanos;
+  private final int minBcryptStrength;
+  private final int pbkdf2Iterations;
+
+  public CalibratedPasswordEncoderFactory(PasswordHashingExecutor passwordHashingExecutor,
+                                          @Value("${app.security.password.algorithm:bcrypt}") String algorithm,
+                                          @Value("${app.security.password.target-ms:50}") long targetMs,
+                                          @Value("${app.security.password.bcrypt.min-strength:10}") int minBcryptStrength,
+                                          @Value("${app.security.password.pbkdf2.iterations:310000}") int pbkdf2Iterations) {
+    if (!ALGORITHMS.contains(algorithm)) {
+      throw new IllegalArgumentException("Unsupported password algorithm: " + algorithm);
+    }
+    if (pbkdf2Iterations <= 0) {
+      throw new IllegalArgumentException("PBKDF2 iterations must be positive: " + pbkdf2Iterations);
+    }
+    this.passwordHashingExecutor = passwordHashingExecutor;
+    this.algorithm = algorithm;
+    this.targetNanos = targetMs * 1_000_000L;
+    this.minBcryptStrength = minBcryptStrength;
+    this.pbkdf2Iterations = pbkdf2Iterations;
+  }
+
+  public BoundedPasswordEncoder create() {
+    // Solo se calibra el algoritmo activo; los otros validan hashes existentes con cualquier costo
+    BCryptPasswordEncoder bcrypt = BCRYPT.equals(algorithm)
+        ? new BCryptPasswordEncoder(calibrateBcryptStrength())
+        : new BCryptPasswordEncoder();
+    PasswordEncoder argon2 = ARGON2.equals(algorithm)
+        ? argon2(calibrateArgon2Iterations())
+        : Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+    if (PBKDF2.equals(algorithm)) {
+      logPbkdf2Cost();
+    }
+
+    String pbkdf2Id = pbkdf2Id(pbkdf2Iterations);
+    DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(
+        PBKDF2.equals(algorithm) ? pbkdf2Id : algorithm,
+        Map.of(BCRYPT, bcrypt,
+            pbkdf2Id, pbkdf2(pbkdf2Iterations),
+            PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8(),
+            ARGON2, argon2));
+    // Ids que no están en el mapa: {pbkdf2@n} con otro costo, o BCrypt sin prefijo (hashes previos a este cambio)
+    delegating.setDefaultPasswordEncoderForMatches(new UnmappedHashMatcher(bcrypt));
+    return new BoundedPasswordEncoder(delegating, passwordHashingExecutor);
+  }
+
+  private int calibrateBcryptStrength() {
+    long probe = measure(new BCryptPasswordEncoder(BCRYPT_PROBE_STRENGTH));
+    // Cada punto de strength duplica el costo
+    int strength = BCRYPT_PROBE_STRENGTH;
+    while (strength < 31 && probe * 2 <= targetNanos) {
+      probe *= 2;
+      strength++;
+    }
+    strength = Math.max(strength, minBcryptStrength);
+    log.info("BCrypt calibrado: strength {} para un objetivo de {} ms", strength, targetNanos / 1_000_000);
+    return strength;
+  }
+
+  // Solo informa: cambiar las iteraciones es decisión de configuración, no de cada arranque
+  private void logPbkdf2Cost() {
+    long probe = measure(pbkdf2(pbkdf2Iterations));
+    long suggested = Math.max(1, pbkdf2Iterations * targetNanos / probe);
+    log.info("PBKDF2: {} iteraciones tardan {} ms por hash; para {} ms serían unas {}",
+        pbkdf2Iterations, probe / 1_000_000, targetNanos / 1_000_000, suggested);
+  }
+
+  private int calibrateArgon2Iterations() {
+    long probe = measure(argon2(ARGON2_PROBE_ITERATIONS));
+    int iterations = (int) Math.max(ARGON2_PROBE_ITERATIONS, ARGON2_PROBE_ITERATIONS * targetNanos / probe);
+    log.info("Argon2id calibrado: {} iteraciones ({} KiB) para un objetivo de {} ms",
+        iterations, ARGON2_MEMORY_KB, targetNanos / 1_000_000);
+    return iterations;
+  }
+
+  private static PasswordEncoder pbkdf2(int iterations) {
+    return new Pbkdf2PasswordEncoder("", 16, iterations,
+        Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+  }
+
+  private static String pbkdf2Id(int iterations) {
+    return PBKDF2 + "@" + iterations;
+  }
+
+  private static PasswordEncoder argon2(int iterations) {
+    return new Argon2PasswordEncoder(16, 32, 1, ARGON2_MEMORY_KB, iterations);
+  }
+
+  // Mejor de tres mediciones después de un warm-up, para no calibrar con el JIT frío
+  private static long measure(PasswordEncoder encoder) {
+    encoder.encode(SAMPLE_PASSWORD);
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < 3; i++) {
+      long start = System.nanoTime();
+      encoder.encode(SAMPLE_PASSWORD);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return Math.max(best, 1);
+  }
+
+  /**
+   * Valida los hashes cuyo id no está en el mapa del DelegatingPasswordEncoder: {pbkdf2@n} con un
+   * costo distinto del configurado (otro nodo, o antes de un cambio de configuración) y BCrypt sin prefijo.
+   */
+  private static final class UnmappedHashMatcher implements PasswordEncoder {
+
+    private final PasswordEncoder legacy;
+    private final Map<Integer, PasswordEncoder> pbkdf2ByIterations = new ConcurrentHashMap<>();
+
+    private UnmappedHashMatcher(PasswordEncoder legacy) {
+      this.legacy = legacy;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      throw new UnsupportedOperationException("Only used to match existing hashes");
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String prefixEncodedPassword) {
+      if (prefixEncodedPassword == null) {
+        return false;
+      }
+      Matcher id = PBKDF2_ID.matcher(prefixEncodedPassword);
+      if (!id.find()) {
+        return legacy.matches(rawPassword, prefixEncodedPassword);
+      }
+      int iterations = Integer.parseInt(id.group(1));
+      if (iterations == 0) {
+        return false;
+      }
+      return pbkdf2ByIterations.computeIfAbsent(iterations, CalibratedPasswordEncoderFactory::pbkdf2)
+          .matches(rawPassword, prefixEncodedPassword.substring(id.end()));
+    }
+  }
+}
@@ -4,8 +4,8 @@ import com.alkemy.java2.clase15.model.User;
 import com.alkemy.java2.clase15.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,26 +13,40 @@ import org.springframework.stereotype.Service;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
   private final UserRepository userRepository;
+  private final UserPrincipalCache userPrincipalCache;
+  private final UserCacheInvalidator userCacheInvalidator;
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
     log.debug("Intentando cargar usuario por nombre: {}", username);
 
 
-    User user = userRepository.findByUsername(username)
+    User user = userPrincipalCache.get(username, userRepository::findCredentialsByUsername)
         .orElseThrow(() -> {
           log.error("Usuario no encontrado con nombre: {}", username);
           return new UsernameNotFoundException("User not found with username: " + username);
 
         });
 
-    log.info("Usuario cargado exitosamente: {}", username);
-    user.getAuthorities().stream()
-        .map(GrantedAuthority::getAuthority)
-        .forEach(authority -> log.info("User authority en custom user details: {}", authority));
+    // Corre en cada request autenticado (filtro JWT stateful): solo en debug
+    if (log.isDebugEnabled()) {
+      log.debug("Usuario cargado exitosamente: {} con authorities {}", username, user.getAuthorities());
+    }
     return user;
   }
-}
\ No newline at end of file
+
+  // Llamado por DaoAuthenticationProvider tras un login exitoso si el hash está desactualizado
+  @Override
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    log.info("Re-hasheando password con parámetros actuales para: {}", user.getUsername());
+    userRepository.updatePasswordByUsername(user.getUsername(), newPassword);
+    userCacheInvalidator.evict(user.getUsername());
+    if (user instanceof User entity) {
+      entity.setPassword(newPassword);
+    }
+    return user;
+  }
+}
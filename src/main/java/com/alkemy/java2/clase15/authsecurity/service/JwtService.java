@@ -1,45 +1,103 @@
 package com.alkemy.java2.clase15.authsecurity.service;
 
+import com.alkemy.java2.clase15.authsecurity.dto.VerifiedToken;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.model.User;
 import io.jsonwebtoken.SignatureAlgorithm;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.*;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+  private static final String ROLES_CLAIM = "roles";
+  // Formato compacto: máscara de Role en lugar de la lista de ROLE_*
+  private static final String ROLE_MASK_CLAIM = "rm";
+
+  private final VerifiedTokenCache verifiedTokenCache;
+
   @Value("${app.jwt.secret}")
   private String secretKey;
 
   @Value("${app.jwt.expiration}")
   private Long expirationMs;
 
-  private Key signingKey;
+  // Solo cambia cómo se emiten los tokens: verify acepta siempre los dos formatos
+  @Value("${app.jwt.compact-roles:false}")
+  private boolean compactRoles;
+
+  private SecretKey signingKey;
+
+  // El parser es inmutable y thread-safe: se construye una sola vez al iniciar
+  private JwtParser parser;
+
+  @PostConstruct
+  void init() {
+    signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+    parser = Jwts.parser()
+        .verifyWith(signingKey)
+        .build();
+  }
 
   public String generateToken(UserDetails user) {
-    return Jwts.builder()
-        .subject(user.getUsername())
-        .claim("roles", user.getAuthorities().stream()
-            .map(auth -> auth.getAuthority())
-            .toList())
+    JwtBuilder builder = Jwts.builder().subject(user.getUsername());
+    if (compactRoles && user instanceof User entity) {
+      builder.claim(ROLE_MASK_CLAIM, Role.maskOf(entity.getRoles()));
+    } else {
+      builder.claim(ROLES_CLAIM, roleNames(user));
+    }
+    return builder
         .issuedAt(new Date())
         .expiration(new Date(System.currentTimeMillis() + expirationMs))
-        .signWith(getSigningKey(), resolveAlgorithm())
+        .signWith(signingKey, resolveAlgorithm())
         .compact();
   }
 
+  /**
+   * Verifica firma y expiración del token con una única pasada de parseo; los tokens
+   * ya verificados se resuelven desde {@link VerifiedTokenCache}.
+   * Lanza {@link JwtException} si el token es inválido, no tiene {@code exp} o está vencido.
+   */
+  public VerifiedToken verify(String token) {
+    VerifiedToken verified = verifiedTokenCache.get(token, this::parseAndVerify);
+    // La cache vence con su propio reloj monotónico; acá se vuelve a comparar contra la hora real
+    if (verified.isExpired(Instant.now())) {
+      throw new JwtException("JWT expired at " + verified.getExpiresAt());
+    }
+    return verified;
+  }
+
+  private VerifiedToken parseAndVerify(String token) {
+    Claims claims = parser.parseSignedClaims(token).getPayload();
+    // jjwt solo valida exp si está presente; un token sin vencimiento no se acepta
+    Date expiration = claims.getExpiration();
+    if (expiration == null) {
+      throw new MalformedJwtException("JWT without expiration");
+    }
+    return VerifiedToken.builder()
+        .subject(claims.getSubject())
+        .roles(extractRoles(claims))
+        .expiresAt(expiration.toInstant())
+        .build();
+  }
+
   public boolean isTokenValid(String token, UserDetails user) {
     try {
-      return user.getUsername().equals(extractClaim(token, Claims::getSubject)) &&
-          !extractClaim(token, Claims::getExpiration).before(new Date());
+      return user.getUsername().equals(verify(token).getSubject());
     } catch (JwtException e) {
       return false;
     }
@@ -51,21 +109,31 @@ public class JwtService {
 
   public <T> T extractClaim(String token, Function<Claims, T> resolver) {
     try {
-      return resolver.apply(Jwts.parser()
-          .setSigningKey(getSigningKey())
-          .build()
-          .parseClaimsJws(token)
-          .getBody());
+      return resolver.apply(parser.parseSignedClaims(token).getPayload());
     } catch (ExpiredJwtException e) {
       return resolver.apply(e.getClaims());
     }
   }
 
-  private Key getSigningKey() {
-    if (signingKey == null) {
-      signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+  // Para nuestros usuarios la lista de nombres ya está precalculada por combinación de roles
+  private static List<String> roleNames(UserDetails user) {
+    if (user instanceof User entity) {
+      return Role.authorityNamesOf(Role.maskOf(entity.getRoles()));
+    }
+    return user.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .toList();
+  }
+
+  private static List<String> extractRoles(Claims claims) {
+    if (claims.get(ROLE_MASK_CLAIM) instanceof Number mask) {
+      return Role.authorityNamesOf(mask.intValue());
+    }
+    Object roles = claims.get(ROLES_CLAIM);
+    if (!(roles instanceof Collection<?> values)) {
+      return List.of();
     }
-    return signingKey;
+    return values.stream().map(String::valueOf).toList();
   }
 
   private SignatureAlgorithm resolveAlgorithm() {
@@ -0,0 +1,113 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import com.alkemy.java2.clase15.exception.LoginThrottledException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita los intentos de login por username y por IP antes de llegar a BCrypt.
+ *
+ * <p>Cada clave es un token bucket en forma GCRA: un único {@link AtomicLong} con el
+ * "theoretical arrival time", actualizado con CAS y sin locks. Las claves sin uso
+ * expiran solas y la cantidad total de claves está acotada.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+  private final Limiter byUsername;
+  private final Limiter byClient;
+
+  @Autowired
+  public LoginRateLimiter(@Value("${app.security.login-rate.username.capacity:5}") int usernameCapacity,
+                          @Value("${app.security.login-rate.username.per-minute:5}") int usernamePerMinute,
+                          @Value("${app.security.login-rate.ip.capacity:20}") int ipCapacity,
+                          @Value("${app.security.login-rate.ip.per-minute:20}") int ipPerMinute,
+                          @Value("${app.security.login-rate.idle-expiry-ms:600000}") long idleExpiryMs,
+                          @Value("${app.security.login-rate.max-keys:100000}") long maxKeys,
+                          MeterRegistry meterRegistry) {
+    this(usernameCapacity, usernamePerMinute, ipCapacity, ipPerMinute, idleExpiryMs, maxKeys,
+        meterRegistry, System::nanoTime);
+  }
+
+  public LoginRateLimiter(int usernameCapacity, int usernamePerMinute, int ipCapacity, int ipPerMinute,
+                          long idleExpiryMs, long maxKeys, MeterRegistry meterRegistry, LongSupplier clock) {
+    this.byUsername = new Limiter("username", usernameCapacity, usernamePerMinute,
+        idleExpiryMs, maxKeys, meterRegistry, clock);
+    this.byClient = new Limiter("ip", ipCapacity, ipPerMinute, idleExpiryMs, maxKeys, meterRegistry, clock);
+  }
+
+  public void acquireForUsername(String username) {
+    if (username != null) {
+      byUsername.acquire(username.toLowerCase(Locale.ROOT));
+    }
+  }
+
+  public void acquireForClient(String clientIp) {
+    if (clientIp != null) {
+      byClient.acquire(clientIp);
+    }
+  }
+
+  private static final class Limiter {
+
+    private final String name;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final Counter rejected;
+    private final LongSupplier clock;
+
+    Limiter(String name, int capacity, int perMinute, long idleExpiryMs, long maxKeys,
+            MeterRegistry meterRegistry, LongSupplier clock) {
+      if (perMinute <= 0 || capacity <= 0) {
+        throw new IllegalArgumentException(
+            "app.security.login-rate." + name + ".capacity and per-minute must be greater than 0");
+      }
+      this.name = name;
+      this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+      this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1L);
+      this.buckets = Caffeine.newBuilder()
+          .maximumSize(maxKeys)
+          .expireAfterAccess(Duration.ofMillis(idleExpiryMs))
+          .build();
+      this.rejected = Counter.builder("auth.login.throttled")
+          .description("Intentos de login rechazados por rate limit")
+          .tag("key", name)
+          .register(meterRegistry);
+      this.clock = clock;
+    }
+
+    void acquire(String key) {
+      long now = clock.getAsLong();
+      AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+      while (true) {
+        long tat = bucket.get();
+        long start = Math.max(tat, now);
+        long waitNanos = start - burstToleranceNanos - now;
+        if (waitNanos > 0) {
+          // Solo la métrica: en una ráfaga de credential stuffing un WARN por intento inundaría el log
+          rejected.increment();
+          log.debug("Login limitado por {}: {}", name, key);
+          throw new LoginThrottledException("Too many login attempts",
+              Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+        if (bucket.compareAndSet(tat, start + emissionIntervalNanos)) {
+          return;
+        }
+      }
+    }
+  }
+}
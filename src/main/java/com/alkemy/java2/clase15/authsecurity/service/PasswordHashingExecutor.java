@@ -0,0 +1,104 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import com.alkemy.java2.clase15.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+
+/**
+ * Pool acotado y dedicado para BCrypt, separado de los threads de Tomcat.
+ * Sigue siendo de platform threads aun con virtual threads habilitados: el hashing es CPU pura y el
+ * tamaño del pool es lo que evita que miles de requests concurrentes saturen los cores. El request
+ * (virtual) que espera el resultado se desmonta de su carrier mientras tanto.
+ * Con la cola llena el llamador recibe {@link PasswordHashingBusyException} de inmediato.
+ * Métricas: executor.* (pool, cola, tiempo de espera) y password.hashing.rejected.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+  private static final String METRIC_NAME = "password.hashing";
+
+  private final ThreadPoolExecutor pool;
+  private final ExecutorService timedPool;
+  private final Counter rejected;
+  private final long maxWaitMs;
+  private final long retryAfterSeconds;
+
+  public PasswordHashingExecutor(@Value("${app.security.hashing.pool-size:0}") int poolSize,
+                                 @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity,
+                                 @Value("${app.security.hashing.max-wait-ms:2000}") long maxWaitMs,
+                                 @Value("${app.security.hashing.retry-after-seconds:1}") long retryAfterSeconds,
+                                 MeterRegistry meterRegistry) {
+    int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+    this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new CustomizableThreadFactory("password-hashing-"),
+        new ThreadPoolExecutor.AbortPolicy());
+    this.timedPool = ExecutorServiceMetrics.monitor(meterRegistry, pool, METRIC_NAME);
+    this.rejected = Counter.builder(METRIC_NAME + ".rejected")
+        .description("Operaciones de hashing rechazadas por pool saturado")
+        .register(meterRegistry);
+    this.maxWaitMs = maxWaitMs;
+    this.retryAfterSeconds = retryAfterSeconds;
+    log.info("Pool de hashing de passwords: {} threads, cola de {}", threads, queueCapacity);
+  }
+
+  public <T> T execute(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = timedPool.submit(task);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingBusyException("Password hashing queue is full", retryAfterSeconds);
+    }
+    try {
+      return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      rejected.increment();
+      throw new PasswordHashingBusyException("Password hashing timed out", retryAfterSeconds);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingBusyException("Password hashing interrupted", retryAfterSeconds);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  // Variante que no bloquea al llamador (stack reactivo): el future se completa en un thread del pool.
+  // No hay max-wait: nadie queda esperando y la cola acotada ya limita la demora.
+  public <T> CompletableFuture<T> submit(Callable<T> task) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    try {
+      timedPool.execute(() -> {
+        try {
+          result.complete(task.call());
+        } catch (Exception e) {
+          result.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      result.completeExceptionally(
+          new PasswordHashingBusyException("Password hashing queue is full", retryAfterSeconds));
+    }
+    return result;
+  }
+
+  @Override
+  public void destroy() {
+    pool.shutdown();
+  }
+}
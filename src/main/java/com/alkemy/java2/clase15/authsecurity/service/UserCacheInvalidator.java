@@ -0,0 +1,36 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import com.alkemy.java2.clase15.service.impl.UserByIdCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Punto único de invalidación de las caches de usuarios. Se llama después de cada
+ * escritura para que cambios de roles, altas y bajas se vean en el siguiente request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+
+  private final UserPrincipalCache userPrincipalCache;
+  private final UserStatusService userStatusService;
+  private final UserByIdCache userByIdCache;
+
+  public void evict(String... usernames) {
+    for (String username : usernames) {
+      if (username != null) {
+        log.debug("Invalidando caches del usuario: {}", username);
+        userPrincipalCache.evict(username);
+        userStatusService.evict(username);
+      }
+    }
+  }
+
+  public void evictById(String id) {
+    if (id != null) {
+      userByIdCache.evict(id);
+    }
+  }
+}
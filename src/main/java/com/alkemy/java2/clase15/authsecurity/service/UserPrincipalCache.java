@@ -0,0 +1,55 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.service.impl.NonPinningCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache read-through de principals por username (TTL + tamaño máximo, eviction W-TinyLFU).
+ * Los usuarios inexistentes no se cachean. Se invalida desde {@link UserCacheInvalidator}.
+ * La carga corre fuera de los locks del mapa ({@link NonPinningCache}).
+ */
+@Component
+public class UserPrincipalCache {
+
+  private final NonPinningCache<String, User> cache;
+
+  public UserPrincipalCache(@Value("${app.users.cache.ttl-ms:60000}") long ttlMs,
+                            @Value("${app.users.cache.max-size:10000}") long maxSize,
+                            MeterRegistry meterRegistry) {
+    this.cache = new NonPinningCache<>(Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(ttlMs))
+        .recordStats());
+    CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "users.principals");
+  }
+
+  public Optional<User> get(String username, Function<String, Optional<User>> loader) {
+    return cache.get(username, key -> loader.apply(key).orElse(null));
+  }
+
+  // Sin loader: el stack reactivo consulta la cache y carga el usuario sin bloquear
+  public Optional<User> getIfPresent(String username) {
+    return cache.getIfPresent(username);
+  }
+
+  public void put(String username, User user) {
+    cache.put(username, user);
+  }
+
+  public void evict(String username) {
+    cache.invalidate(username);
+  }
+
+  public void evictAll() {
+    cache.invalidateAll();
+  }
+}
@@ -0,0 +1,60 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.UserRepository;
+import com.alkemy.java2.clase15.service.impl.NonPinningCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Estado (activo / revocado) de los usuarios para el modo stateless del filtro JWT.
+ * Cada usuario se consulta como máximo una vez por TTL, leyendo solo el campo active.
+ */
+@Slf4j
+@Service
+public class UserStatusService {
+
+  private final UserRepository userRepository;
+  private final NonPinningCache<String, Boolean> activeByUsername;
+
+  public UserStatusService(UserRepository userRepository,
+                           @Value("${app.jwt.stateless.status-ttl-ms:30000}") long statusTtlMs,
+                           @Value("${app.jwt.stateless.status-cache-size:10000}") long maxSize) {
+    this.userRepository = userRepository;
+    this.activeByUsername = new NonPinningCache<>(Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(statusTtlMs)));
+  }
+
+  public boolean isActive(String username) {
+    return activeByUsername.get(username, this::loadActive).orElse(false);
+  }
+
+  // Sin cargar desde la base: el stack reactivo resuelve los misses con el repositorio reactivo
+  public Optional<Boolean> getIfPresent(String username) {
+    return activeByUsername.getIfPresent(username);
+  }
+
+  public void put(String username, boolean active) {
+    activeByUsername.put(username, active);
+  }
+
+  public void evict(String username) {
+    if (username != null) {
+      activeByUsername.invalidate(username);
+    }
+  }
+
+  private Boolean loadActive(String username) {
+    log.debug("Consultando estado del usuario: {}", username);
+    // Un usuario borrado se trata igual que uno desactivado: el token queda revocado
+    return userRepository.findStatusByUsername(username)
+        .map(User::isActive)
+        .orElse(false);
+  }
+}
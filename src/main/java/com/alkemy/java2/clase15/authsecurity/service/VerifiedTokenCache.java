@@ -0,0 +1,56 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import com.alkemy.java2.clase15.authsecurity.dto.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Cache de verificaciones JWT exitosas. La clave es el SHA-256 del token (nunca el token en claro)
+ * y cada entrada vence junto con el propio token.
+ */
+@Component
+public class VerifiedTokenCache {
+
+  private final Cache<ByteBuffer, VerifiedToken> cache;
+
+  public VerifiedTokenCache(@Value("${app.jwt.cache.max-size:50000}") long maxSize,
+                            MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(Expiry.<ByteBuffer, VerifiedToken>creating(
+            (key, verified) -> Duration.between(Instant.now(), verified.getExpiresAt())))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+  }
+
+  /**
+   * Devuelve la verificación cacheada o ejecuta {@code verifier} y guarda el resultado.
+   * Las excepciones del verificador se propagan y no se cachean.
+   */
+  public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+    return cache.get(digest(token), key -> verifier.apply(token));
+  }
+
+  private static ByteBuffer digest(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
@@ -1,5 +1,12 @@
 package com.alkemy.java2.clase15.config;
 
+import com.alkemy.java2.clase15.exception.LoginThrottledException;
+import com.alkemy.java2.clase15.exception.PasswordHashingBusyException;
+import com.alkemy.java2.clase15.exception.SearchIndexUnavailableException;
+import com.alkemy.java2.clase15.exception.UserNotFoundException;
+import com.alkemy.java2.clase15.exception.UserVersionConflictException;
+import com.alkemy.java2.clase15.exception.UsernameAlreadyExistsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -8,6 +15,39 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+  @ExceptionHandler(PasswordHashingBusyException.class)
+  public ResponseEntity<ErrorResponse> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(SearchIndexUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleSearchIndexUnavailable(SearchIndexUnavailableException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(LoginThrottledException.class)
+  public ResponseEntity<ErrorResponse> handleLoginThrottled(LoginThrottledException ex) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(UserNotFoundException.class)
+  public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException ex) {
+    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler({UsernameAlreadyExistsException.class, UserVersionConflictException.class})
+  public ResponseEntity<ErrorResponse> handleConflict(RuntimeException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGeneric(Exception ex) {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -1,7 +1,11 @@
 package com.alkemy.java2.clase15.config;
 
 import com.alkemy.java2.clase15.authsecurity.JwtAuthFilter;
+import com.alkemy.java2.clase15.authsecurity.service.BoundedPasswordEncoder;
+import com.alkemy.java2.clase15.authsecurity.service.CalibratedPasswordEncoderFactory;
+import com.alkemy.java2.clase15.enums.Role;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,9 +16,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -52,6 +55,7 @@ public class SecurityConfig {
     return new InMemoryUserDetailsManager(user, admin);}
 }
 */@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @Slf4j
 //@RequiredArgsConstructor
@@ -60,15 +64,20 @@ public class SecurityConfig {
 
   private final JwtAuthFilter jwtAuthFilter;
   private final UserDetailsService userDetailsService;
+  private final CalibratedPasswordEncoderFactory passwordEncoderFactory;
 
   private static final String[] WHITE_LIST = {
       "/api/v1/auth/**", "/api/v1/test/**",
       "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html"
   };
 
-  public SecurityConfig(JwtAuthFilter jwtAuthFilter, UserDetailsService userDetailsService) {
+  private static final String BULK_ENDPOINTS = "/api/v1/users/bulk/**";
+
+  public SecurityConfig(JwtAuthFilter jwtAuthFilter, UserDetailsService userDetailsService,
+                        CalibratedPasswordEncoderFactory passwordEncoderFactory) {
     this.jwtAuthFilter = Objects.requireNonNull(jwtAuthFilter, "JwtAuthFilter is required");
     this.userDetailsService = Objects.requireNonNull(userDetailsService, "UserDetailsService is required");
+    this.passwordEncoderFactory = Objects.requireNonNull(passwordEncoderFactory, "PasswordEncoderFactory is required");
   }
 
   @Bean
@@ -81,6 +90,8 @@ public class SecurityConfig {
         .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(auth -> auth
             .requestMatchers(WHITE_LIST).permitAll()
+            // Altas, cambios y bajas masivas afectan a muchos usuarios a la vez: solo ADMIN
+            .requestMatchers(BULK_ENDPOINTS).hasRole(Role.ADMIN.name())
             .anyRequest().authenticated())
         .authenticationProvider(authProvider())
         .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
@@ -98,7 +109,7 @@ public class SecurityConfig {
   public CorsConfigurationSource corsConfig() {
     CorsConfiguration config = new CorsConfiguration();
     config.setAllowedOrigins(List.of("http://localhost:8080", "http://localhost:9080", "https://localhost:9443", "http://localhost:3000"));
-    config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+    config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
     config.setAllowedHeaders(List.of("*"));
     config.setAllowCredentials(true);
 
@@ -111,12 +122,17 @@ public class SecurityConfig {
   public AuthenticationProvider authProvider() {
     var provider = new DaoAuthenticationProvider();
     provider.setUserDetailsService(userDetailsService);
-    provider.setPasswordEncoder(new BCryptPasswordEncoder());
+    provider.setPasswordEncoder(passwordEncoder());
+    // Re-hashea en el login los passwords con parámetros desactualizados
+    if (userDetailsService instanceof UserDetailsPasswordService passwordService) {
+      provider.setUserDetailsPasswordService(passwordService);
+    }
     return provider;
   }
 
+  // Costo calibrado al hardware; el hashing corre en un pool acotado propio, nunca en los threads de Tomcat
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public BoundedPasswordEncoder passwordEncoder() {
+    return passwordEncoderFactory.create();
   }
 }
\ No newline at end of file
@@ -0,0 +1,208 @@
+package com.alkemy.java2.clase15.config;
+
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.UserRoleStorage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crea y verifica los índices de users.
+ *
+ * <p>Boot no crea los índices de {@code @Indexed}/{@code @CompoundIndex} por defecto; acá se resuelven
+ * desde las mismas anotaciones de {@link User}, así la lista no se mantiene en dos lugares. Los de
+ * {@code roleMask} solo se exigen con el formato compacto de roles activo. Todo corre en un thread
+ * propio cuando la aplicación ya está lista: un Mongo lento o caído no bloquea el arranque.
+ *
+ * <p>Después de crearlos se verifica que estén todos y que las consultas críticas usen su índice
+ * ({@code explain}); eso define si el estado es sano. Aparte se informan, con {@code $indexStats},
+ * los índices que no se usaron en la ventana configurada. El gauge {@code users.indexes.missing}
+ * expone los faltantes.
+ */
+@Slf4j
+@Component
+public class UserIndexManager {
+
+  // Consultas que no pueden caer en un collection scan y el índice que deberían usar
+  private static final List<Probe> PROBES = List.of(
+      new Probe("findByUsername", new Document("username", ""), null, "username"),
+      new Probe("listado por name", new Document(), new Document("name", 1).append("_id", 1), "name_id"));
+
+  private final MongoTemplate mongoTemplate;
+  private final UserRoleStorage userRoleStorage;
+  private final Duration unusedAfter;
+  private final AtomicInteger missingIndexes = new AtomicInteger(-1);
+
+  public UserIndexManager(MongoTemplate mongoTemplate,
+                          UserRoleStorage userRoleStorage,
+                          @Value("${app.users.indexes.unused-after-hours:24}") long unusedAfterHours,
+                          MeterRegistry meterRegistry) {
+    this.mongoTemplate = mongoTemplate;
+    this.userRoleStorage = userRoleStorage;
+    this.unusedAfter = Duration.ofHours(unusedAfterHours);
+    // -1 mientras la verificación no terminó
+    Gauge.builder("users.indexes.missing", missingIndexes, AtomicInteger::get)
+        .description("Índices declarados en User que no existen en la colección")
+        .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void bootstrap() {
+    // Thread daemon propio, no el ForkJoinPool común: termina con la tarea y no demora el apagado
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-indexes-");
+    threadFactory.setDaemon(true);
+    ExecutorService executor = Executors.newSingleThreadExecutor(threadFactory);
+    executor.execute(() -> {
+      try {
+        ensureIndexes();
+        verify();
+      } catch (RuntimeException e) {
+        log.warn("No se pudieron verificar los índices de users: {}", e.getMessage());
+      }
+    });
+    executor.shutdown();
+  }
+
+  public List<IndexDefinition> requiredIndexes() {
+    IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+    List<IndexDefinition> indexes = new ArrayList<>();
+    for (IndexDefinition index : resolver.resolveIndexFor(User.class)) {
+      if (userRoleStorage.isCompact() || !index.getIndexKeys().containsKey(UserRoleStorage.ROLE_MASK)) {
+        indexes.add(index);
+      }
+    }
+    return indexes;
+  }
+
+  public void ensureIndexes() {
+    for (IndexDefinition index : requiredIndexes()) {
+      try {
+        String name = mongoTemplate.indexOps(User.class).ensureIndex(index);
+        log.info("Índice asegurado en users.{}", name);
+      } catch (RuntimeException e) {
+        log.warn("No se pudo asegurar el índice {}: {}", index.getIndexKeys().toJson(), e.getMessage());
+      }
+    }
+  }
+
+  public IndexReport verify() {
+    Set<String> existing = new TreeSet<>();
+    for (IndexInfo info : mongoTemplate.indexOps(User.class).getIndexInfo()) {
+      existing.add(info.getName());
+    }
+    Set<String> missing = new TreeSet<>();
+    for (IndexDefinition index : requiredIndexes()) {
+      String name = String.valueOf(index.getIndexOptions().get("name"));
+      if (!existing.contains(name)) {
+        missing.add(name);
+      }
+    }
+    missingIndexes.set(missing.size());
+
+    List<String> unindexedQueries = new ArrayList<>();
+    for (Probe probe : PROBES) {
+      Set<String> used = plannedIndexes(probe);
+      if (!used.contains(probe.expectedIndex())) {
+        unindexedQueries.add(probe.name() + " -> " + (used.isEmpty() ? "COLLSCAN" : used));
+      }
+    }
+
+    IndexReport report = new IndexReport(missing, unusedIndexes(), unindexedQueries);
+    if (report.healthy()) {
+      log.info("Índices de users verificados: {}", existing);
+    } else {
+      log.warn("Índices de users con problemas: faltan {}, consultas sin índice {}",
+          report.missing(), report.unindexedQueries());
+    }
+    if (!report.unused().isEmpty()) {
+      // Informativo: un índice sin uso es candidato a borrar, no un problema de funcionamiento
+      log.info("Índices de users sin uso en las últimas {} h: {}", unusedAfter.toHours(), report.unused());
+    }
+    return report;
+  }
+
+  // Nombres de índice en el plan ganador de la consulta; vacío si el plan es un collection scan
+  private Set<String> plannedIndexes(Probe probe) {
+    Document find = new Document("find", mongoTemplate.getCollectionName(User.class))
+        .append("filter", probe.filter())
+        .append("limit", 1);
+    if (probe.sort() != null) {
+      find.append("sort", probe.sort());
+    }
+    Document explain = mongoTemplate.executeCommand(
+        new Document("explain", find).append("verbosity", "queryPlanner"));
+    Set<String> indexes = new LinkedHashSet<>();
+    collectIndexNames(explain.get("queryPlanner"), indexes);
+    return indexes;
+  }
+
+  // El formato del plan cambia entre versiones de Mongo; se busca indexName en cualquier nivel
+  private static void collectIndexNames(Object node, Set<String> indexes) {
+    if (node instanceof Document document) {
+      Object indexName = document.get("indexName");
+      if (indexName instanceof String name) {
+        indexes.add(name);
+      }
+      document.values().forEach(value -> collectIndexNames(value, indexes));
+    } else if (node instanceof List<?> list) {
+      list.forEach(value -> collectIndexNames(value, indexes));
+    }
+  }
+
+  // Solo se informan índices cuyas estadísticas cubren la ventana: $indexStats se reinicia con mongod
+  private Set<String> unusedIndexes() {
+    Instant threshold = Instant.now().minus(unusedAfter);
+    Set<String> unused = new TreeSet<>();
+    AggregationOperation indexStats = context -> new Document("$indexStats", new Document());
+    List<Document> stats = mongoTemplate.aggregate(Aggregation.newAggregation(indexStats),
+        User.class, Document.class).getMappedResults();
+    for (Document stat : stats) {
+      Document accesses = stat.get("accesses", Document.class);
+      if (accesses == null || "_id_".equals(stat.getString("name"))) {
+        continue;
+      }
+      Date since = accesses.getDate("since");
+      Number ops = accesses.get("ops", Number.class);
+      if (since != null && since.toInstant().isBefore(threshold) && ops != null && ops.longValue() == 0) {
+        unused.add(stat.getString("name"));
+      }
+    }
+    return unused;
+  }
+
+  private record Probe(String name, Document filter, Document sort, String expectedIndex) {
+  }
+
+  public record IndexReport(Set<String> missing, Set<String> unused, List<String> unindexedQueries) {
+
+    // Los índices sin uso no cuentan: se informan aparte
+    public boolean healthy() {
+      return missing.isEmpty() && unindexedQueries.isEmpty();
+    }
+  }
+}
@@ -1,17 +1,31 @@
 package com.alkemy.java2.clase15.controller;
 
+import com.alkemy.java2.clase15.dto.BulkDeleteRequest;
+import com.alkemy.java2.clase15.dto.BulkRegistrationResponse;
+import com.alkemy.java2.clase15.dto.BulkUpdateRequest;
+import com.alkemy.java2.clase15.dto.BulkUsersResponse;
+import com.alkemy.java2.clase15.dto.UserBatchItem;
 import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.UserPage;
+import com.alkemy.java2.clase15.dto.UserPatchRequest;
+import com.alkemy.java2.clase15.service.UserBulkService;
 import com.alkemy.java2.clase15.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 
 // user controller
@@ -20,35 +34,104 @@ import java.util.List;
 @RequestMapping("/api/v1/users")
 @Tag(name = "Usuarios", description = "Operaciones relacionadas con usuarios internas del sistema")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   private final UserService userService;
+  private final UserBulkService userBulkService;
 
   @GetMapping
   @Operation(
-      summary = "Obtener todos los usuarios",
-      description = "Devuelve una lista con todas los usuarios del sistema"
+      summary = "Listar usuarios",
+      description = "Devuelve una página de usuarios ordenada por id, username o name. "
+          + "Si hay más resultados, el header X-Next-Cursor trae el cursor de la página siguiente. "
+          + "fields= limita los campos devueltos (id, name, username, roles)"
+  )
+  public ResponseEntity<List<UserDTO>> obtenerTodas(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(defaultValue = "id") String sort,
+      @RequestParam(required = false) String fields) {
+    UserPage pagina = userService.getUsers(cursor, limit, sort, fields);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (pagina.getNextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, pagina.getNextCursor());
+    }
+    return response.body(pagina.getItems());
+  }
+
+  @GetMapping("/search")
+  @Operation(
+      summary = "Buscar usuarios",
+      description = "Filtra por prefijo de name (namePrefix), role y active, ordenado por name. "
+          + "Cada combinación de filtros usa un índice compuesto; si todavía no existe responde 503. "
+          + "Si hay más resultados, el header X-Next-Cursor trae el cursor de la página siguiente"
   )
-  public ResponseEntity<List<UserDTO>> obtenerTodas() {
-    List<UserDTO> lista = userService.getAllUsers();
-    return ResponseEntity.ok(lista);
+  public ResponseEntity<List<UserDTO>> buscar(
+      @RequestParam(required = false) String namePrefix,
+      @RequestParam(required = false) String role,
+      @RequestParam(required = false) Boolean active,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String fields) {
+    UserPage pagina = userService.searchUsers(namePrefix, role, active, cursor, limit, fields);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (pagina.getNextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, pagina.getNextCursor());
+    }
+    return response.body(pagina.getItems());
+  }
+
+  @GetMapping(value = "/export", produces = "application/x-ndjson")
+  @Operation(
+      summary = "Exportar usuarios",
+      description = "Devuelve todos los usuarios en NDJSON (uno por línea), sin password, en streaming. "
+          + "fields= limita los campos devueltos (id, name, username, roles)"
+  )
+  public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) String fields) {
+    StreamingResponseBody body = out -> userService.exportUsers(out, fields);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType("application/x-ndjson"))
+        .body(body);
+  }
+
+  @GetMapping("/batch")
+  @Operation(
+      summary = "Obtener usuarios por lista de IDs",
+      description = "Resuelve varios IDs en una sola consulta; el resultado respeta el orden pedido "
+          + "e indica found=false para los que no existen"
+  )
+  public ResponseEntity<List<UserBatchItem>> obtenerPorIds(@RequestParam List<String> ids) {
+    return ResponseEntity.ok(userService.getUsersByIds(ids));
+  }
+
+  @PostMapping("/batch")
+  @Operation(
+      summary = "Obtener usuarios por lista de IDs (body)",
+      description = "Igual que GET /batch, con los IDs como array JSON en el body para listas largas"
+  )
+  public ResponseEntity<List<UserBatchItem>> obtenerPorIdsPost(@RequestBody List<String> ids) {
+    return ResponseEntity.ok(userService.getUsersByIds(ids));
   }
 
-/*
   @GetMapping("/{id}")
   @Operation(
       summary = "Obtener usuario por ID",
-      description = "Devuelve un usuario específico según su ID"
+      description = "Devuelve un usuario específico según su ID. Soporta If-None-Match con el ETag devuelto"
   )
   @ApiResponses({
       @ApiResponse(responseCode = "200", description = "Usuario encontrado"),
+      @ApiResponse(responseCode = "304", description = "El usuario no cambió desde el ETag indicado"),
       @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
   })
   public ResponseEntity<UserDTO> obtenerPorId(@PathVariable String id) {
+    // Con ETag en un GET, Spring compara If-None-Match y responde 304 sin serializar el body
     return userService.getUserById(id)
-        .map(ResponseEntity::ok)
+        .map(usuario -> ResponseEntity.ok().eTag(usuario.getEtag()).body(usuario.getUser()))
         .orElse(ResponseEntity.notFound().build());
-  }*/
+  }
 
   @PostMapping
   @ApiResponse(responseCode = "201", description = "Usuario creado exitosamente")
@@ -57,6 +140,39 @@ public class UserController {
     return ResponseEntity.status(HttpStatus.CREATED).body(creado);
   }
 
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Alta masiva de usuarios",
+      description = "Recibe un array JSON de usuarios y devuelve el resultado de cada uno. Requiere rol ADMIN"
+  )
+  @ApiResponse(responseCode = "200", description = "Lote procesado; ver el estado de cada usuario")
+  public ResponseEntity<BulkRegistrationResponse> crearMasivo(HttpServletRequest request) throws IOException {
+    // Se lee el body en streaming para no materializar el array completo
+    return ResponseEntity.ok(userBulkService.registerAll(request.getInputStream()));
+  }
+
+  @PatchMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Actualización masiva de usuarios",
+      description = "Recibe items con id y los campos a cambiar, o un filter (role, active) con el set a aplicar. "
+          + "Devuelve el resultado de cada usuario. Requiere rol ADMIN"
+  )
+  @ApiResponse(responseCode = "200", description = "Lote procesado; ver el estado de cada usuario")
+  public ResponseEntity<BulkUsersResponse> actualizarMasivo(@RequestBody BulkUpdateRequest request) {
+    return ResponseEntity.ok(userBulkService.updateAll(request));
+  }
+
+  @PostMapping(value = "/bulk/delete", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Baja masiva de usuarios",
+      description = "Recibe una lista de ids o un filter (role, active) y devuelve el resultado de cada usuario. "
+          + "Requiere rol ADMIN"
+  )
+  @ApiResponse(responseCode = "200", description = "Lote procesado; ver el estado de cada usuario")
+  public ResponseEntity<BulkUsersResponse> eliminarMasivo(@RequestBody BulkDeleteRequest request) {
+    return ResponseEntity.ok(userBulkService.deleteAll(request));
+  }
+
   @PutMapping("/{id}")
   @Operation(
       summary = "Actualizar usuario",
@@ -75,6 +191,22 @@ public class UserController {
     return ResponseEntity.ok(actualizado);
   }
 
+  @PatchMapping("/{id}")
+  @Operation(
+      summary = "Actualizar usuario parcialmente",
+      description = "Actualiza solo los campos enviados en una única operación atómica. "
+          + "Si se envía version, el cambio solo se aplica si el usuario sigue en esa versión"
+  )
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Usuario actualizado exitosamente"),
+      @ApiResponse(responseCode = "409", description = "Versión desactualizada o username existente")
+  })
+  public ResponseEntity<UserDTO> actualizarParcial(
+      @PathVariable String id,
+      @Valid @RequestBody UserPatchRequest patch) {
+    return ResponseEntity.ok(userService.patchUser(id, patch));
+  }
+
   @DeleteMapping("/{id}")
   @Operation(
       summary = "Eliminar usuario",
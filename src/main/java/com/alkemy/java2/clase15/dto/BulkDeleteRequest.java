@@ -0,0 +1,20 @@
+package com.alkemy.java2.clase15.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Body de POST /api/v1/users/bulk/delete: o una lista de ids o un filtro
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDeleteRequest {
+
+  private List<String> ids;
+
+  private UserFilter filter;
+}
@@ -0,0 +1,32 @@
+package com.alkemy.java2.clase15.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRegistrationResponse {
+
+  private int total;
+
+  private int created;
+
+  private int conflicts;
+
+  private int rejected;
+
+  private long elapsedMs;
+
+  private double usersPerSecond;
+
+  // true si el array superaba el máximo por request o tenía JSON mal formado y no se procesó completo
+  private boolean truncated;
+
+  private List<BulkUserResult> results;
+}
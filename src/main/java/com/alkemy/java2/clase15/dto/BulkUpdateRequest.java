@@ -0,0 +1,22 @@
+package com.alkemy.java2.clase15.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Body de PATCH /api/v1/users/bulk: o una lista de items (cambios por id) o filter + set
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUpdateRequest {
+
+  private List<BulkUserPatch> items;
+
+  private UserFilter filter;
+
+  private BulkUserPatch set;
+}
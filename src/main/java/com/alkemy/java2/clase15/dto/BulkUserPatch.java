@@ -0,0 +1,31 @@
+package com.alkemy.java2.clase15.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+// Cambios de un usuario en una actualización masiva; solo se aplican los campos no null
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserPatch {
+
+  // Requerido en la lista de items; se ignora en el "set" de una actualización por filtro
+  private String id;
+
+  @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+  private String name;
+
+  @Email
+  private String username;
+
+  private Set<String> roles;
+
+  private Boolean active;
+}
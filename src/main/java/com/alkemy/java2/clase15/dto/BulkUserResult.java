@@ -0,0 +1,26 @@
+package com.alkemy.java2.clase15.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserResult {
+
+  public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, CONFLICT, INVALID, FAILED }
+
+  // Posición del usuario dentro del array recibido (-1 en operaciones por filtro)
+  private int index;
+
+  private String username;
+
+  private Status status;
+
+  private String id;
+
+  private String message;
+}
@@ -0,0 +1,29 @@
+package com.alkemy.java2.clase15.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Resultado de una actualización o baja masiva, con el estado de cada usuario
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUsersResponse {
+
+  private int total;
+
+  private int succeeded;
+
+  private int failed;
+
+  private long elapsedMs;
+
+  // true si el filtro seleccionaba más usuarios que el máximo por request
+  private boolean truncated;
+
+  private List<BulkUserResult> results;
+}
@@ -0,0 +1,22 @@
+package com.alkemy.java2.clase15.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resultado de un id pedido en /api/v1/users/batch; found=false si el id no existe
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserBatchItem {
+
+  private String id;
+
+  private boolean found;
+
+  private UserDTO user;
+}
@@ -1,5 +1,6 @@
 package com.alkemy.java2.clase15.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -17,6 +18,7 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Slf4j
+@JsonInclude(JsonInclude.Include.NON_NULL) // Los campos no pedidos (fields=) no se serializan
 public class UserDTO {
 
   @Id
@@ -32,4 +34,6 @@ public class UserDTO {
   private String password;
 
   private Set<String> roles;
+
+  private Long version;
 }
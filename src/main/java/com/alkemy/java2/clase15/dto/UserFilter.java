@@ -0,0 +1,18 @@
+package com.alkemy.java2.clase15.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Selección de usuarios para operaciones masivas; al menos un criterio es obligatorio
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserFilter {
+
+  private String role;
+
+  private Boolean active;
+}
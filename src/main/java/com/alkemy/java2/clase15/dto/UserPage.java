@@ -0,0 +1,20 @@
+package com.alkemy.java2.clase15.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPage {
+
+  private List<UserDTO> items;
+
+  // Token opaco para pedir la página siguiente; null si no hay más
+  private String nextCursor;
+}
@@ -0,0 +1,33 @@
+package com.alkemy.java2.clase15.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+// Body de PATCH /api/v1/users/{id}: solo se actualizan los campos presentes (no null)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPatchRequest {
+
+  @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+  private String name;
+
+  @Email
+  private String username;
+
+  @Size(min = 8, max = 20)
+  private String password;
+
+  private Set<String> roles;
+
+  // Precondición opcional: si viene, el update solo se aplica si el documento sigue en esa versión
+  private Long version;
+}
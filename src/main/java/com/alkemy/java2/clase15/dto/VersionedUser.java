@@ -0,0 +1,10 @@
+package com.alkemy.java2.clase15.dto;
+
+import lombok.Value;
+
+// Vista pública de un usuario (sin password) junto con el ETag fuerte de su representación JSON
+@Value
+public class VersionedUser {
+  UserDTO user;
+  String etag;
+}
@@ -1,9 +1,69 @@
 package com.alkemy.java2.clase15.enums;
 
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Roles de usuario. Cada rol tiene su authority {@code ROLE_*} precalculada y un bit propio; cada
+ * combinación de roles (máscara) tiene una única colección inmutable de authorities compartida, así
+ * resolver las authorities de un usuario en cada request no crea objetos.
+ *
+ * <p>El bit es el ordinal y la máscara se persiste (JWT y documentos en formato compacto): los roles
+ * nuevos se agregan siempre al final y nunca se reordenan ni se borran.
+ */
 public enum Role implements GrantedAuthority {
 USER, ADMIN;
+
+  private static final Role[] VALUES = values();
+
+  private static final Map<String, Role> BY_AUTHORITY = new HashMap<>();
+
+  // Índice = máscara de roles
+  private static final List<Set<GrantedAuthority>> AUTHORITIES_BY_MASK = new ArrayList<>();
+  private static final List<List<String>> AUTHORITY_NAMES_BY_MASK = new ArrayList<>();
+  private static final List<List<Integer>> MASKS_WITH = new ArrayList<>();
+  private static final int ALL_MASK = (1 << VALUES.length) - 1;
+
+  static {
+    for (Role role : VALUES) {
+      BY_AUTHORITY.put(role.grantedAuthority.getAuthority(), role);
+    }
+    for (int mask = 0; mask <= ALL_MASK; mask++) {
+      Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+      List<String> names = new ArrayList<>();
+      for (Role role : VALUES) {
+        if ((mask & role.mask) != 0) {
+          authorities.add(role.grantedAuthority);
+          names.add(role.grantedAuthority.getAuthority());
+        }
+      }
+      AUTHORITIES_BY_MASK.add(Collections.unmodifiableSet(authorities));
+      AUTHORITY_NAMES_BY_MASK.add(List.copyOf(names));
+    }
+    for (Role role : VALUES) {
+      List<Integer> masks = new ArrayList<>();
+      for (int mask = 0; mask <= ALL_MASK; mask++) {
+        if ((mask & role.mask) != 0) {
+          masks.add(mask);
+        }
+      }
+      MASKS_WITH.add(List.copyOf(masks));
+    }
+  }
+
+  private final GrantedAuthority grantedAuthority = new SimpleGrantedAuthority("ROLE_" + name());
+  private final int mask = 1 << ordinal();
+
 public String getName()
 {return this.name();}
 
@@ -11,5 +71,68 @@ public String getName()
   public String getAuthority() {
     return name();
   }
-}
 
+  // Authority con prefijo ROLE_, la que evalúan hasRole(...) y los claims del JWT
+  public GrantedAuthority grantedAuthority() {
+    return grantedAuthority;
+  }
+
+  public int mask() {
+    return mask;
+  }
+
+  public static int maskOf(Collection<Role> roles) {
+    int mask = 0;
+    if (roles != null) {
+      for (Role role : roles) {
+        mask |= role.mask;
+      }
+    }
+    return mask;
+  }
+
+  // Bits desconocidos (un rol de una versión más nueva) se ignoran
+  public static Set<GrantedAuthority> authoritiesOf(int mask) {
+    return AUTHORITIES_BY_MASK.get(mask & ALL_MASK);
+  }
+
+  public static Set<GrantedAuthority> authoritiesOf(Collection<Role> roles) {
+    return authoritiesOf(maskOf(roles));
+  }
+
+  public static List<String> authorityNamesOf(int mask) {
+    return AUTHORITY_NAMES_BY_MASK.get(mask & ALL_MASK);
+  }
+
+  // Set mutable, para asignarlo a una entidad
+  public static Set<Role> rolesOf(int mask) {
+    EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+    for (Role role : VALUES) {
+      if ((mask & role.mask) != 0) {
+        roles.add(role);
+      }
+    }
+    return roles;
+  }
+
+  // Todas las máscaras que incluyen el rol: los valores del $in de una búsqueda por rol
+  public static List<Integer> masksWith(Role role) {
+    return MASKS_WITH.get(role.ordinal());
+  }
+
+  /**
+   * Authorities a partir de los nombres {@code ROLE_*} de un claim. Si son todos roles conocidos
+   * devuelve la colección compartida; un nombre desconocido se conserva en una colección propia.
+   */
+  public static Collection<GrantedAuthority> authoritiesOfNames(Collection<String> names) {
+    int mask = 0;
+    for (String name : names) {
+      Role role = BY_AUTHORITY.get(name);
+      if (role == null) {
+        return names.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+      }
+      mask |= role.mask;
+    }
+    return authoritiesOf(mask);
+  }
+}
@@ -0,0 +1,33 @@
+package com.alkemy.java2.clase15.enums;
+
+import java.util.Arrays;
+
+// Ordenamientos permitidos en el listado: cada uno tiene un índice que cubre (campo, _id)
+public enum UserSort {
+  ID("id", "_id"),
+  USERNAME("username", "username"),
+  NAME("name", "name");
+
+  private final String param;
+  private final String field;
+
+  UserSort(String param, String field) {
+    this.param = param;
+    this.field = field;
+  }
+
+  public String getParam() {
+    return param;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  public static UserSort fromParam(String param) {
+    return Arrays.stream(values())
+        .filter(sort -> sort.param.equalsIgnoreCase(param))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unsupported sort: " + param));
+  }
+}
@@ -0,0 +1,15 @@
+package com.alkemy.java2.clase15.exception;
+
+import lombok.Getter;
+
+// Demasiados intentos de login para un usuario o una IP: se responde 429 antes de correr BCrypt
+@Getter
+public class LoginThrottledException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public LoginThrottledException(String message, long retryAfterSeconds) {
+    super(message, null, false, false);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
@@ -0,0 +1,16 @@
+package com.alkemy.java2.clase15.exception;
+
+import lombok.Getter;
+
+// El pool de hashing está saturado: se responde 503 rápido en lugar de colgar el request
+@Getter
+public class PasswordHashingBusyException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+    // Sin stack trace: es un rechazo esperado bajo carga, no un error de programación
+    super(message, null, false, false);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
@@ -0,0 +1,16 @@
+package com.alkemy.java2.clase15.exception;
+
+import lombok.Getter;
+
+// El índice que necesita la búsqueda todavía no existe: se responde 503 en lugar de recorrer toda la colección
+@Getter
+public class SearchIndexUnavailableException extends RuntimeException {
+
+  private static final long RETRY_AFTER_SECONDS = 30;
+
+  private final long retryAfterSeconds = RETRY_AFTER_SECONDS;
+
+  public SearchIndexUnavailableException(String index) {
+    super("Search index not available: " + index, null, false, false);
+  }
+}
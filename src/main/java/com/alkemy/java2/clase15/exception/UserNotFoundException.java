@@ -0,0 +1,9 @@
+package com.alkemy.java2.clase15.exception;
+
+// Usuario inexistente: se responde 404. Es un resultado esperado de la API, no necesita stack trace
+public class UserNotFoundException extends RuntimeException {
+
+  public UserNotFoundException(String id) {
+    super("User not found with id: " + id, null, false, false);
+  }
+}
@@ -0,0 +1,9 @@
+package com.alkemy.java2.clase15.exception;
+
+// El documento cambió desde la versión que envió el cliente: se responde 409
+public class UserVersionConflictException extends RuntimeException {
+
+  public UserVersionConflictException(String id, long expectedVersion) {
+    super("User " + id + " is no longer at version " + expectedVersion);
+  }
+}
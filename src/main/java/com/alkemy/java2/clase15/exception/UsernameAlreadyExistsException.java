@@ -0,0 +1,9 @@
+package com.alkemy.java2.clase15.exception;
+
+// Violación del índice único de username: se responde 409
+public class UsernameAlreadyExistsException extends RuntimeException {
+
+  public UsernameAlreadyExistsException(Throwable cause) {
+    super("Username already exists", cause);
+  }
+}
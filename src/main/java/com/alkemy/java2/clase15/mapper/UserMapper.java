@@ -6,6 +6,7 @@ import com.alkemy.java2.clase15.enums.Role;
 import com.alkemy.java2.clase15.model.User;
 import org.mapstruct.Mapper;
 
+import java.util.EnumSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -28,6 +29,7 @@ public interface UserMapper {
         .username(user.getUsername())
         .password(user.getPassword())
         .roles(roles)
+        .version(user.getVersion())
         .build();
   }
 
@@ -39,7 +41,7 @@ public interface UserMapper {
       roles = dto.getRoles()
           .stream()
           .map(Role::valueOf) // convertir String a Enum Role
-          .collect(Collectors.toSet());
+          .collect(Collectors.toCollection(() -> EnumSet.noneOf(Role.class)));
     }
 
     return User.builder()
@@ -10,19 +10,28 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Data
 @Document(collection = "users") // Especificar nombre de colección
+@CompoundIndex(name = "name_id", def = "{ 'name': 1, '_id': 1 }") // Listado paginado ordenado por name
+// Búsqueda por role/active/prefijo de name: filtros por igualdad primero, después el orden (name, _id)
+@CompoundIndex(name = "active_name_id", def = "{ 'active': 1, 'name': 1, '_id': 1 }")
+@CompoundIndex(name = "roles_name_id", def = "{ 'roles': 1, 'name': 1, '_id': 1 }")
+@CompoundIndex(name = "roles_active_name_id", def = "{ 'roles': 1, 'active': 1, 'name': 1, '_id': 1 }")
+// Lo mismo para roles en formato compacto (UserRoleStorage); parciales, no ocupan nada si nadie usa roleMask
+@CompoundIndex(name = "roleMask_name_id", def = "{ 'roleMask': 1, 'name': 1, '_id': 1 }",
+    partialFilter = "{ 'roleMask': { '$exists': true } }")
+@CompoundIndex(name = "roleMask_active_name_id", def = "{ 'roleMask': 1, 'active': 1, 'name': 1, '_id': 1 }",
+    partialFilter = "{ 'roleMask': { '$exists': true } }")
 @Slf4j
 @Builder
 @AllArgsConstructor
@@ -48,11 +57,13 @@ public class User implements UserDetails {
 
   private  boolean active=true;
 
+  // Se incrementa en cada update; los documentos anteriores no lo tienen y cuentan como versión 0
+  private Long version;
+
+    // Colección compartida e inmutable por combinación de roles (ver Role)
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return roles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
-                .collect(Collectors.toSet());
+        return Role.authoritiesOf(roles);
     }
 
     @Override
@@ -1,18 +1,34 @@
 package com.alkemy.java2.clase15.repository;
 
 import com.alkemy.java2.clase15.model.User;
+import org.springframework.data.mongodb.repository.ExistsQuery;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface UserRepository  extends MongoRepository<User, String> {
+public interface UserRepository  extends MongoRepository<User, String>, UserRepositoryCustom {
 
   Optional<User> findByUsername(String username);
 
-  default boolean existsUserByUsername(String username){
-    return  findByUsername(username).isPresent();
-  }
+  // Proyección para autenticar: lo que usa UserDetails y el token, sin el resto del documento
+  @Query(value = "{ 'username': ?0 }", fields = "{ 'username': 1, 'password': 1, 'roles': 1, 'roleMask': 1, 'active': 1 }")
+  Optional<User> findCredentialsByUsername(String username);
+
+  // Proyección mínima: solo trae _id y active
+  @Query(value = "{ 'username': ?0 }", fields = "{ 'active': 1 }")
+  Optional<User> findStatusByUsername(String username);
+
+  // Actualiza solo el hash del password (re-hash en login), sin reescribir el documento
+  @Query("{ 'username': ?0 }")
+  @Update("{ '$set': { 'password': ?1 } }")
+  long updatePasswordByUsername(String username, String encodedPassword);
+
+  // Resuelto con el índice de username, sin traer el documento
+  @ExistsQuery("{ 'username': ?0 }")
+  boolean existsUserByUsername(String username);
 
 }
@@ -0,0 +1,34 @@
+package com.alkemy.java2.clase15.repository;
+
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.enums.UserSort;
+import com.alkemy.java2.clase15.model.User;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface UserRepositoryCustom {
+
+  // Página por keyset: hasta limit usuarios posteriores a (afterValue, afterId) en orden ascendente.
+  // Sin afterId devuelve la primera página. Solo se leen los campos indicados (más _id y el de orden).
+  List<User> findPage(UserSort sort, String afterValue, String afterId, int limit, Collection<String> fields);
+
+  // Búsqueda por role, active y prefijo de name (cualquiera puede ser null), ordenada por (name, _id) con keyset.
+  // Cada combinación de filtros usa su índice compuesto por hint; si el índice no existe lanza
+  // SearchIndexUnavailableException en lugar de caer en un collection scan.
+  List<User> search(Role role, Boolean active, String namePrefix, String afterName, String afterId, int limit,
+                    Collection<String> fields);
+
+  // Aplica update (más $inc de version) en un solo findAndModify y devuelve el documento previo.
+  // Con expectedVersion solo matchea si el documento sigue en esa versión. Vacío si no hubo match.
+  Optional<User> updateAndGetPrevious(String id, Update update, Long expectedVersion);
+
+  // Borra por _id en una sola operación y devuelve solo el username del documento borrado
+  Optional<User> deleteAndGetUsername(String id);
+
+  // Recorre todos los usuarios con un cursor de Mongo leyendo solo fields; hay que cerrar el stream
+  Stream<User> streamAll(int batchSize, Collection<String> fields);
+}
@@ -0,0 +1,212 @@
+package com.alkemy.java2.clase15.repository;
+
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.enums.UserSort;
+import com.alkemy.java2.clase15.exception.SearchIndexUnavailableException;
+import com.alkemy.java2.clase15.model.User;
+import com.mongodb.MongoServerException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+  private static final int BAD_VALUE = 2;
+
+  private final MongoTemplate mongoTemplate;
+  private final UserRoleStorage userRoleStorage;
+
+  // Índices de users ya vistos; se relee la lista cuando falta el que pide la búsqueda o Mongo rechaza su hint
+  private final Set<String> knownIndexes = ConcurrentHashMap.newKeySet();
+
+  @Override
+  public List<User> findPage(UserSort sort, String afterValue, String afterId, int limit,
+                             Collection<String> fields) {
+    return mongoTemplate.find(pageQuery(sort, afterValue, afterId, limit, fields), User.class);
+  }
+
+  // Compartida con el repositorio reactivo, para que los dos stacks paginen igual
+  static Query pageQuery(UserSort sort, String afterValue, String afterId, int limit, Collection<String> fields) {
+    Query query = new Query();
+    include(query, fields);
+    if (sort != UserSort.ID) {
+      // El cursor de la página siguiente necesita el valor del campo de orden
+      query.fields().include(sort.getField());
+    }
+    if (afterId != null) {
+      query.addCriteria(after(sort, afterValue, afterId));
+    }
+    // _id desempata cuando el campo de orden se repite, así el keyset es total
+    query.with(sort == UserSort.ID
+        ? Sort.by(Sort.Direction.ASC, "_id")
+        : Sort.by(Sort.Direction.ASC, sort.getField()).and(Sort.by(Sort.Direction.ASC, "_id")));
+    query.limit(limit);
+    return query;
+  }
+
+  @Override
+  public List<User> search(Role role, Boolean active, String namePrefix, String afterName, String afterId,
+                           int limit, Collection<String> fields) {
+    // Igualdades en el orden del índice, después el rango de name: el scan queda acotado por los bounds
+    List<Criteria> criteria = new ArrayList<>();
+    if (role != null) {
+      criteria.add(userRoleStorage.hasRole(role));
+    }
+    if (active != null) {
+      criteria.add(Criteria.where("active").is(active));
+    }
+    if (namePrefix != null && !namePrefix.isEmpty()) {
+      // Rango [prefijo, siguiente prefijo) en lugar de regex: usa los mismos bounds sin escapar nada
+      Criteria range = Criteria.where("name").gte(namePrefix);
+      String upper = prefixUpperBound(namePrefix);
+      criteria.add(upper == null ? range : range.lt(upper));
+    }
+    if (afterId != null) {
+      criteria.add(after(UserSort.NAME, afterName, afterId));
+    }
+
+    // En modo compacto el rol es un $or entre los dos formatos: cada rama usa su índice y Mongo
+    // mezcla los resultados ya ordenados, así que no se fuerza un índice único con hint
+    boolean bothRoleFormats = role != null && userRoleStorage.isCompact();
+    String index = searchIndex(role, active);
+    requireIndex(index);
+    if (bothRoleFormats) {
+      requireIndex(active != null ? "roleMask_active_name_id" : "roleMask_name_id");
+    }
+    Query query = new Query();
+    if (!criteria.isEmpty()) {
+      query.addCriteria(new Criteria().andOperator(criteria));
+    }
+    include(query, fields);
+    query.fields().include("name");
+    query.with(Sort.by(Sort.Direction.ASC, "name").and(Sort.by(Sort.Direction.ASC, "_id")));
+    query.limit(limit);
+    if (bothRoleFormats) {
+      return mongoTemplate.find(query, User.class);
+    }
+    query.withHint(index);
+    try {
+      return mongoTemplate.find(query, User.class);
+    } catch (DataAccessException e) {
+      if (!isMissingHintIndex(e)) {
+        throw e;
+      }
+      // Se borró (o se renombró) después de verificarlo: se olvida para que la próxima búsqueda relea la lista
+      knownIndexes.remove(index);
+      throw new SearchIndexUnavailableException(index);
+    }
+  }
+
+  @Override
+  public Optional<User> updateAndGetPrevious(String id, Update update, Long expectedVersion) {
+    Query query = Query.query(Criteria.where("_id").is(id));
+    if (expectedVersion != null) {
+      // Sin campo version el documento está en la versión 0
+      query.addCriteria(expectedVersion == 0
+          ? Criteria.where("version").in(0L, null)
+          : Criteria.where("version").is(expectedVersion));
+    }
+    update.inc("version", 1);
+    return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(false), User.class));
+  }
+
+  @Override
+  public Optional<User> deleteAndGetUsername(String id) {
+    Query query = Query.query(Criteria.where("_id").is(id));
+    query.fields().include("username");
+    return Optional.ofNullable(mongoTemplate.findAndRemove(query, User.class));
+  }
+
+  @Override
+  public Stream<User> streamAll(int batchSize, Collection<String> fields) {
+    Query query = new Query()
+        .with(Sort.by(Sort.Direction.ASC, "_id"))
+        .cursorBatchSize(batchSize);
+    include(query, fields);
+    return mongoTemplate.stream(query, User.class);
+  }
+
+  private static void include(Query query, Collection<String> fields) {
+    for (String field : fields) {
+      if (UserRoleStorage.ROLES.equals(field)) {
+        UserRoleStorage.includeRoles(query.fields());
+      } else {
+        query.fields().include(field);
+      }
+    }
+  }
+
+  // Un índice por combinación de filtros, todos terminados en (name, _id) para ordenar sin sort en memoria
+  static String searchIndex(Role role, Boolean active) {
+    if (role != null) {
+      return active != null ? "roles_active_name_id" : "roles_name_id";
+    }
+    return active != null ? "active_name_id" : "name_id";
+  }
+
+  // Menor string mayor que todos los que empiezan con prefix; null si no hay cota superior
+  static String prefixUpperBound(String prefix) {
+    StringBuilder upper = new StringBuilder(prefix);
+    for (int i = upper.length() - 1; i >= 0; i--) {
+      char c = upper.charAt(i);
+      if (c != Character.MAX_VALUE) {
+        upper.setCharAt(i, (char) (c + 1));
+        upper.setLength(i + 1);
+        return upper.toString();
+      }
+    }
+    return null;
+  }
+
+  // Mongo rechaza con BadValue un hint a un índice que no existe
+  static boolean isMissingHintIndex(DataAccessException e) {
+    return e.getMostSpecificCause() instanceof MongoServerException server
+        && server.getCode() == BAD_VALUE
+        && server.getMessage() != null
+        && server.getMessage().contains("hint provided does not correspond to an existing index");
+  }
+
+  private void requireIndex(String index) {
+    if (knownIndexes.contains(index)) {
+      return;
+    }
+    for (IndexInfo info : mongoTemplate.indexOps(User.class).getIndexInfo()) {
+      knownIndexes.add(info.getName());
+    }
+    if (!knownIndexes.contains(index)) {
+      throw new SearchIndexUnavailableException(index);
+    }
+  }
+
+  // En orden ascendente Mongo pone primero los null (y los campos ausentes): después de un null siguen
+  // los null con _id mayor y todos los valores no null
+  static Criteria after(UserSort sort, String afterValue, String afterId) {
+    if (sort == UserSort.ID) {
+      return Criteria.where("_id").gt(afterId);
+    }
+    if (afterValue == null) {
+      return new Criteria().orOperator(
+          Criteria.where(sort.getField()).is(null).and("_id").gt(afterId),
+          Criteria.where(sort.getField()).ne(null));
+    }
+    return new Criteria().orOperator(
+        Criteria.where(sort.getField()).gt(afterValue),
+        Criteria.where(sort.getField()).is(afterValue).and("_id").gt(afterId));
+  }
+}
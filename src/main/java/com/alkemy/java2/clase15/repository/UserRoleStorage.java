@@ -0,0 +1,85 @@
+package com.alkemy.java2.clase15.repository;
+
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.model.User;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveCallback;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Formato de los roles en el documento de users.
+ *
+ * <p>Por defecto se guardan como array de nombres ({@code roles: ["USER", "ADMIN"]}). Con
+ * {@code app.users.roles.compact=true} se guarda un entero con la máscara de {@link Role}
+ * ({@code roleMask: 3}). La lectura entiende los dos formatos siempre, así los documentos viejos
+ * siguen funcionando durante el rollout y se van reescribiendo en cada save o update de roles.
+ * Volver a desactivarlo requiere que no queden documentos con máscara: las búsquedas por rol solo
+ * miran los dos formatos con el modo compacto activo.
+ */
+@Component
+public class UserRoleStorage implements BeforeSaveCallback<User>, AfterConvertCallback<User> {
+
+  public static final String ROLES = "roles";
+  public static final String ROLE_MASK = "roleMask";
+
+  private final boolean compact;
+
+  public UserRoleStorage(@Value("${app.users.roles.compact:false}") boolean compact) {
+    this.compact = compact;
+  }
+
+  public boolean isCompact() {
+    return compact;
+  }
+
+  /**
+   * Usuarios con el rol. En modo compacto matchea los dos formatos: el nombre en {@code roles} o
+   * alguna de las máscaras que incluyen el bit ({@code $in}, con {@code $exists} para poder usar
+   * el índice parcial sobre roleMask).
+   */
+  public Criteria hasRole(Role role) {
+    if (!compact) {
+      return Criteria.where(ROLES).is(role);
+    }
+    return new Criteria().orOperator(
+        Criteria.where(ROLES).is(role),
+        Criteria.where(ROLE_MASK).exists(true).in(Role.masksWith(role)));
+  }
+
+  // $set de los roles en el formato configurado; el otro formato se borra para no dejar datos viejos
+  public Update setRoles(Update update, Collection<Role> roles) {
+    if (compact) {
+      return update.set(ROLE_MASK, Role.maskOf(roles)).unset(ROLES);
+    }
+    return update.set(ROLES, roles).unset(ROLE_MASK);
+  }
+
+  // Proyecciones que piden los roles traen los dos formatos
+  public static void includeRoles(Field fields) {
+    fields.include(ROLES).include(ROLE_MASK);
+  }
+
+  @Override
+  public User onBeforeSave(User user, Document document, String collection) {
+    if (compact && user.getRoles() != null) {
+      document.remove(ROLES);
+      document.put(ROLE_MASK, Role.maskOf(user.getRoles()));
+    }
+    return user;
+  }
+
+  @Override
+  public User onAfterConvert(User user, Document document, String collection) {
+    if (user.getRoles() == null && document.get(ROLE_MASK) instanceof Number mask) {
+      user.setRoles(Role.rolesOf(mask.intValue()));
+    }
+    return user;
+  }
+}
@@ -0,0 +1,20 @@
+package com.alkemy.java2.clase15.service;
+
+import com.alkemy.java2.clase15.dto.BulkDeleteRequest;
+import com.alkemy.java2.clase15.dto.BulkRegistrationResponse;
+import com.alkemy.java2.clase15.dto.BulkUpdateRequest;
+import com.alkemy.java2.clase15.dto.BulkUsersResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserBulkService {
+  // Lee un array JSON de UserDTO en streaming y registra los usuarios por lotes
+  BulkRegistrationResponse registerAll(InputStream jsonArray) throws IOException;
+
+  // Aplica cambios parciales a una lista de usuarios por id, o el mismo cambio a todos los que cumplen un filtro
+  BulkUsersResponse updateAll(BulkUpdateRequest request);
+
+  // Elimina una lista de usuarios por id, o todos los que cumplen un filtro
+  BulkUsersResponse deleteAll(BulkDeleteRequest request);
+}
@@ -1,13 +1,31 @@
 package com.alkemy.java2.clase15.service;
 
+import com.alkemy.java2.clase15.dto.UserBatchItem;
 import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.UserPage;
+import com.alkemy.java2.clase15.dto.UserPatchRequest;
+import com.alkemy.java2.clase15.dto.VersionedUser;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Optional;
 
 public interface UserService {
   UserDTO createUser(UserDTO user);
   List<UserDTO> getAllUsers();
+  // fields: lista separada por comas (id, name, username, roles); null trae todos
+  UserPage getUsers(String cursor, Integer limit, String sort, String fields);
+  // Filtros opcionales por prefijo de name, role y active; ordenado por name con el mismo cursor que getUsers
+  UserPage searchUsers(String namePrefix, String role, Boolean active, String cursor, Integer limit, String fields);
+  // Escribe todos los usuarios como NDJSON y devuelve cuántos escribió
+  long exportUsers(OutputStream out, String fields) throws IOException;
+  Optional<VersionedUser> getUserById(String id);
+  // Resultados en el orden pedido, con found=false para los ids inexistentes
+  List<UserBatchItem> getUsersByIds(List<String> ids);
   UserDTO updateUser(String id, UserDTO user);
+  // Actualización parcial atómica: solo los campos presentes, con precondición de versión opcional
+  UserDTO patchUser(String id, UserPatchRequest patch);
   void  deleteUser(String id);
 
 }
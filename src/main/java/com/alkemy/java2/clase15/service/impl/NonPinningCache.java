@@ -0,0 +1,97 @@
+package com.alkemy.java2.clase15.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Cache read-through cuyo loader corre en el thread que pidió la clave y fuera de los locks del mapa.
+ *
+ * <p>{@code Cache.get(key, loader)} de Caffeine ejecuta el loader dentro de un
+ * {@code ConcurrentHashMap.compute}, que toma un monitor ({@code synchronized}) del bin. Con virtual
+ * threads eso fija el carrier durante toda la consulta a Mongo. Acá dentro del compute solo se publica
+ * un future vacío; el que lo creó hace la carga y lo completa, y los demás que piden la misma clave
+ * esperan ese future (un virtual thread se desmonta mientras espera). Se mantiene una sola carga por
+ * clave, los {@code null} no se cachean y las excepciones se propagan sin cachearse.
+ */
+public final class NonPinningCache<K, V> {
+
+  private final AsyncCache<K, V> cache;
+
+  public NonPinningCache(Caffeine<Object, Object> builder) {
+    this.cache = builder.buildAsync();
+  }
+
+  public Optional<V> get(K key, Function<? super K, ? extends V> loader) {
+    CompletableFuture<V> created = new CompletableFuture<>();
+    CompletableFuture<V> current = cache.get(key, (k, executor) -> created);
+    if (current == created) {
+      try {
+        created.complete(loader.apply(key));
+      } catch (RuntimeException | Error e) {
+        created.completeExceptionally(e);
+        throw e;
+      }
+    }
+    try {
+      return Optional.ofNullable(current.join());
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw e;
+    }
+  }
+
+  // Bulk: las claves ausentes se cargan con una sola llamada al loader, fuera de cualquier lock
+  public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+    Map<K, V> result = new HashMap<>();
+    Set<K> missing = new LinkedHashSet<>();
+    for (K key : keys) {
+      getIfPresent(key).ifPresentOrElse(value -> result.put(key, value), () -> missing.add(key));
+    }
+    if (!missing.isEmpty()) {
+      loader.apply(Set.copyOf(missing)).forEach((key, value) -> {
+        put(key, value);
+        result.put(key, value);
+      });
+    }
+    return result;
+  }
+
+  // No espera cargas en curso: una clave que se está cargando cuenta como ausente
+  public Optional<V> getIfPresent(K key) {
+    CompletableFuture<V> future = cache.getIfPresent(key);
+    if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(future.getNow(null));
+  }
+
+  public void put(K key, V value) {
+    cache.put(key, CompletableFuture.completedFuture(value));
+  }
+
+  public void invalidate(K key) {
+    cache.synchronous().invalidate(key);
+  }
+
+  public void invalidateAll() {
+    cache.synchronous().invalidateAll();
+  }
+
+  // Vista sincrónica, para registrar las métricas de Caffeine
+  public Cache<K, V> synchronous() {
+    return cache.synchronous();
+  }
+}
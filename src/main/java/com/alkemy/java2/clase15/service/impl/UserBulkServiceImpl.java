@@ -0,0 +1,694 @@
+package com.alkemy.java2.clase15.service.impl;
+
+import com.alkemy.java2.clase15.authsecurity.service.BoundedPasswordEncoder;
+import com.alkemy.java2.clase15.authsecurity.service.UserCacheInvalidator;
+import com.alkemy.java2.clase15.dto.BulkDeleteRequest;
+import com.alkemy.java2.clase15.dto.BulkRegistrationResponse;
+import com.alkemy.java2.clase15.dto.BulkUpdateRequest;
+import com.alkemy.java2.clase15.dto.BulkUserPatch;
+import com.alkemy.java2.clase15.dto.BulkUserResult;
+import com.alkemy.java2.clase15.dto.BulkUsersResponse;
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.UserFilter;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.exception.PasswordHashingBusyException;
+import com.alkemy.java2.clase15.mapper.UserMapper;
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.UserRoleStorage;
+import com.alkemy.java2.clase15.service.UserBulkService;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Operaciones masivas sobre usuarios. El alta lee el array en streaming, hashea en el pool de hashing y escribe
+ * con bulk inserts desordenados; las actualizaciones y bajas trabajan por lotes de batch-size ids, con
+ * una lectura de ids/usernames y una única escritura por lote. Un duplicado, un id inexistente o un
+ * item inválido se reporta en su resultado sin cortar el resto.
+ */
+@Slf4j
+@Service
+public class UserBulkServiceImpl implements UserBulkService {
+
+  private static final int DUPLICATE_KEY = 11000;
+  private static final long NO_VERSION = -1;
+  private static final String DELETED_CONCURRENTLY = "User deleted concurrently";
+
+  private final MongoTemplate mongoTemplate;
+  private final UserMapper userMapper;
+  private final BoundedPasswordEncoder passwordEncoder;
+  private final UserCacheInvalidator userCacheInvalidator;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final UserRoleStorage userRoleStorage;
+  private final int batchSize;
+  private final int maxItems;
+  private final int hashingWindow;
+
+  public UserBulkServiceImpl(MongoTemplate mongoTemplate,
+                             UserMapper userMapper,
+                             BoundedPasswordEncoder passwordEncoder,
+                             UserCacheInvalidator userCacheInvalidator,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             UserRoleStorage userRoleStorage,
+                             @Value("${app.users.bulk.batch-size:1000}") int batchSize,
+                             @Value("${app.users.bulk.max-items:50000}") int maxItems,
+                             @Value("${app.users.bulk.hashing-window:32}") int hashingWindow) {
+    this.mongoTemplate = mongoTemplate;
+    this.userMapper = userMapper;
+    this.passwordEncoder = passwordEncoder;
+    this.userCacheInvalidator = userCacheInvalidator;
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.userRoleStorage = userRoleStorage;
+    this.batchSize = batchSize;
+    this.maxItems = maxItems;
+    this.hashingWindow = hashingWindow;
+  }
+
+  @Override
+  public BulkRegistrationResponse registerAll(InputStream jsonArray) throws IOException {
+    long start = System.nanoTime();
+    List<BulkUserResult> results = new ArrayList<>();
+    List<Pending> batch = new ArrayList<>(batchSize);
+    BulkUserResult malformed = null;
+    boolean truncated = false;
+
+    try (JsonParser parser = objectMapper.getFactory().createParser(jsonArray)) {
+      if (firstToken(parser) != JsonToken.START_ARRAY) {
+        throw new IllegalArgumentException("Expected a JSON array of users");
+      }
+      int index = 0;
+      try {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          if (parser.currentToken() == null) {
+            throw new JsonParseException(parser, "Unexpected end of input: array not closed");
+          }
+          if (index == maxItems) {
+            // Lo ya escrito queda; el resto no se lee y el cliente lo reenvía en otro request
+            truncated = true;
+            break;
+          }
+          batch.add(read(parser, index));
+          index++;
+          if (batch.size() == batchSize) {
+            results.addAll(processBatch(batch));
+            batch.clear();
+          }
+        }
+      } catch (JsonParseException e) {
+        // Con la sintaxis rota no hay forma de ubicar el próximo elemento: se procesa lo leído y el
+        // resto se informa como no procesado
+        truncated = true;
+        malformed = BulkUserResult.builder()
+            .index(index)
+            .status(BulkUserResult.Status.INVALID)
+            .message("Malformed JSON: " + e.getOriginalMessage())
+            .build();
+      }
+    }
+    if (!batch.isEmpty()) {
+      results.addAll(processBatch(batch));
+    }
+    if (malformed != null) {
+      results.add(malformed);
+    }
+
+    long elapsedNanos = Math.max(1, System.nanoTime() - start);
+    int created = count(results, BulkUserResult.Status.CREATED);
+    int conflicts = count(results, BulkUserResult.Status.CONFLICT);
+    double usersPerSecond = created * 1_000_000_000d / elapsedNanos;
+    log.info("Alta masiva: {} usuarios recibidos, {} creados, {} users/s", results.size(), created,
+        String.format("%.1f", usersPerSecond));
+
+    return BulkRegistrationResponse.builder()
+        .total(results.size())
+        .created(created)
+        .conflicts(conflicts)
+        .rejected(results.size() - created - conflicts)
+        .elapsedMs(elapsedNanos / 1_000_000)
+        .usersPerSecond(usersPerSecond)
+        .truncated(truncated)
+        .results(results)
+        .build();
+  }
+
+  // Un body que ni siquiera empieza con JSON válido se rechaza entero, antes de escribir nada
+  private static JsonToken firstToken(JsonParser parser) throws IOException {
+    try {
+      return parser.nextToken();
+    } catch (JsonParseException e) {
+      throw new IllegalArgumentException("Expected a JSON array of users");
+    }
+  }
+
+  // Un elemento que no es un objeto o no se puede mapear a UserDTO queda INVALID y se sigue con el próximo
+  private Pending read(JsonParser parser, int index) throws IOException {
+    JsonNode node = objectMapper.readTree(parser);
+    if (node == null || !node.isObject()) {
+      return new Pending(index, null, "Expected a JSON object");
+    }
+    try {
+      return new Pending(index, objectMapper.treeToValue(node, UserDTO.class));
+    } catch (JsonProcessingException e) {
+      return new Pending(index, node.path("username").textValue(), "Unreadable user: " + e.getOriginalMessage());
+    }
+  }
+
+  private List<BulkUserResult> processBatch(List<Pending> batch) {
+    // Validación y mapeo antes de gastar CPU en hashes
+    for (Pending item : batch) {
+      if (item.error != null) {
+        continue;
+      }
+      item.error = validate(item.dto);
+      if (item.error == null) {
+        try {
+          item.user = userMapper.toEntity(item.dto);
+          // El id se asigna acá para poder informarlo: bulk insert no lo devuelve
+          item.user.setId(new ObjectId().toHexString());
+        } catch (IllegalArgumentException e) {
+          item.error = "Invalid role: " + e.getMessage();
+        }
+      }
+    }
+
+    // Cada encode se encola en el pool acotado de hashing y este thread solo espera los resultados. Hay
+    // como máximo hashing-window en vuelo, para no llenar la cola que comparten los logins
+    Deque<Pending> inFlight = new ArrayDeque<>(hashingWindow);
+    for (Pending item : batch) {
+      if (item.error != null) {
+        continue;
+      }
+      if (inFlight.size() == hashingWindow) {
+        awaitHash(inFlight.poll());
+      }
+      item.hash = passwordEncoder.encodeAsync(item.dto.getPassword());
+      inFlight.add(item);
+    }
+    while (!inFlight.isEmpty()) {
+      awaitHash(inFlight.poll());
+    }
+
+    List<Pending> writable = batch.stream()
+        .filter(item -> item.error == null)
+        .toList();
+    Set<Integer> duplicates = insertUnordered(writable);
+
+    List<BulkUserResult> results = new ArrayList<>(batch.size());
+    List<String> createdUsernames = new ArrayList<>();
+    int position = 0;
+    for (Pending item : batch) {
+      BulkUserResult.BulkUserResultBuilder result = BulkUserResult.builder()
+          .index(item.index)
+          .username(item.username);
+      if (item.error != null) {
+        result.status(item.failed ? BulkUserResult.Status.FAILED : BulkUserResult.Status.INVALID)
+            .message(item.error);
+      } else if (duplicates.contains(position++)) {
+        result.status(BulkUserResult.Status.CONFLICT).message("Username already exists");
+      } else {
+        result.status(BulkUserResult.Status.CREATED).id(item.user.getId());
+        createdUsernames.add(item.user.getUsername());
+      }
+      results.add(result.build());
+    }
+    userCacheInvalidator.evict(createdUsernames.toArray(String[]::new));
+    return results;
+  }
+
+  // Un hash que falla deja el item FAILED: los lotes anteriores ya están escritos y el resto sigue
+  private static void awaitHash(Pending item) {
+    try {
+      item.user.setPassword(item.hash.join());
+    } catch (CompletionException | CancellationException e) {
+      Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+      if (!(cause instanceof PasswordHashingBusyException)) {
+        log.warn("Falló el hash del item {} del alta masiva", item.index, cause);
+      }
+      item.failed = true;
+      item.error = Objects.requireNonNullElse(cause.getMessage(), cause.getClass().getSimpleName());
+    }
+  }
+
+  private Set<Integer> insertUnordered(List<Pending> writable) {
+    if (writable.isEmpty()) {
+      return Set.of();
+    }
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+    bulk.insert(writable.stream().map(item -> item.user).toList());
+    return executeUnordered(bulk).duplicates();
+  }
+
+  // Ejecuta el lote; las operaciones rechazadas por el índice único de username quedan en duplicates
+  private static BulkOutcome executeUnordered(BulkOperations bulk) {
+    try {
+      return new BulkOutcome(Set.of(), bulk.execute());
+    } catch (BulkOperationException e) {
+      // Cualquier error que no sea de clave duplicada no se puede informar por item
+      if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+        throw e;
+      }
+      return new BulkOutcome(e.getErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet()),
+          e.getResult());
+    }
+  }
+
+  private record BulkOutcome(Set<Integer> duplicates, BulkWriteResult result) {
+  }
+
+  @Override
+  public BulkUsersResponse updateAll(BulkUpdateRequest request) {
+    long start = System.nanoTime();
+    boolean byItems = request.getItems() != null;
+    if (byItems == (request.getFilter() != null || request.getSet() != null)) {
+      throw new IllegalArgumentException("Send either items or filter and set");
+    }
+    if (byItems) {
+      List<BulkUserPatch> items = request.getItems();
+      checkSize(items.size());
+      List<BulkUserResult> results = new ArrayList<>(items.size());
+      for (int from = 0; from < items.size(); from += batchSize) {
+        results.addAll(updateBatch(items, from, Math.min(from + batchSize, items.size())));
+      }
+      return response("Actualización masiva", results, false, start, BulkUserResult.Status.UPDATED);
+    }
+
+    BulkUserPatch set = request.getSet();
+    if (request.getFilter() == null || set == null) {
+      throw new IllegalArgumentException("filter and set are required");
+    }
+    if (set.getUsername() != null) {
+      // El mismo username en varios documentos siempre choca con el índice único
+      throw new IllegalArgumentException("username cannot be updated by filter");
+    }
+    String error = validate(set);
+    if (error != null) {
+      throw new IllegalArgumentException(error);
+    }
+    Update update = toUpdate(set);
+    return forEachMatching("Actualización masiva", request.getFilter(), start, BulkUserResult.Status.UPDATED,
+        query -> mongoTemplate.updateMulti(query, update, User.class).getModifiedCount());
+  }
+
+  @Override
+  public BulkUsersResponse deleteAll(BulkDeleteRequest request) {
+    long start = System.nanoTime();
+    if ((request.getIds() != null) == (request.getFilter() != null)) {
+      throw new IllegalArgumentException("Send either ids or filter");
+    }
+    if (request.getFilter() != null) {
+      return forEachMatching("Baja masiva", request.getFilter(), start, BulkUserResult.Status.DELETED,
+          query -> mongoTemplate.remove(query, User.class).getDeletedCount());
+    }
+
+    List<String> ids = request.getIds();
+    checkSize(ids.size());
+    List<BulkUserResult> results = new ArrayList<>(ids.size());
+    for (int from = 0; from < ids.size(); from += batchSize) {
+      List<String> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+      Map<String, String> existing = usernamesById(batch.stream().filter(Objects::nonNull).toList());
+      Set<String> deleted = existing.keySet();
+      if (!existing.isEmpty()) {
+        long count = mongoTemplate.remove(Query.query(Criteria.where("_id").in(existing.keySet())), User.class)
+            .getDeletedCount();
+        if (count < existing.size()) {
+          // Otro request borró alguno entre la lectura y la escritura: no se sabe cuáles borró este
+          deleted = Set.of();
+        }
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        String id = batch.get(i);
+        BulkUserResult.BulkUserResultBuilder result = BulkUserResult.builder().index(from + i).id(id);
+        if (deleted.contains(id)) {
+          result.status(BulkUserResult.Status.DELETED).username(existing.get(id));
+          userCacheInvalidator.evictById(id);
+        } else if (existing.containsKey(id)) {
+          result.status(BulkUserResult.Status.NOT_FOUND).username(existing.get(id)).message(DELETED_CONCURRENTLY);
+          userCacheInvalidator.evictById(id);
+        } else {
+          result.status(BulkUserResult.Status.NOT_FOUND).message("User not found");
+        }
+        results.add(result.build());
+      }
+      userCacheInvalidator.evict(existing.values().toArray(String[]::new));
+    }
+    return response("Baja masiva", results, false, start, BulkUserResult.Status.DELETED);
+  }
+
+  // Un lote de cambios por id: una lectura de usernames con $in y un único bulkWrite desordenado
+  private List<BulkUserResult> updateBatch(List<BulkUserPatch> items, int from, int to) {
+    BulkUserResult[] results = new BulkUserResult[to - from];
+    List<Integer> candidates = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      BulkUserPatch item = items.get(i);
+      String error = item == null || item.getId() == null ? "id is required" : validate(item);
+      if (error != null) {
+        results[i - from] = BulkUserResult.builder()
+            .index(i)
+            .id(item == null ? null : item.getId())
+            .status(BulkUserResult.Status.INVALID)
+            .message(error)
+            .build();
+      } else {
+        candidates.add(i);
+      }
+    }
+
+    Map<String, String> existing = usernamesById(candidates.stream().map(i -> items.get(i).getId()).toList());
+    BulkOperations bulk = null;
+    List<Integer> operations = new ArrayList<>(candidates.size());
+    for (int i : candidates) {
+      BulkUserPatch item = items.get(i);
+      if (!existing.containsKey(item.getId())) {
+        results[i - from] = BulkUserResult.builder()
+            .index(i)
+            .id(item.getId())
+            .status(BulkUserResult.Status.NOT_FOUND)
+            .message("User not found")
+            .build();
+        continue;
+      }
+      if (bulk == null) {
+        bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+      }
+      bulk.updateOne(Query.query(Criteria.where("_id").is(item.getId())), toUpdate(item));
+      operations.add(i);
+    }
+    BulkOutcome outcome = bulk == null ? null : executeUnordered(bulk);
+    Set<Integer> duplicates = outcome == null ? Set.of() : outcome.duplicates();
+    // Un usuario borrado entre la lectura y el bulkWrite no matchea su updateOne: se relee quién sigue existiendo
+    Map<String, String> updatable = existing;
+    if (outcome != null && outcome.result().getMatchedCount() < operations.size() - duplicates.size()) {
+      List<String> written = new ArrayList<>(operations.size());
+      for (int position = 0; position < operations.size(); position++) {
+        if (!duplicates.contains(position)) {
+          written.add(items.get(operations.get(position)).getId());
+        }
+      }
+      updatable = usernamesById(written);
+    }
+
+    List<String> evicted = new ArrayList<>();
+    for (int position = 0; position < operations.size(); position++) {
+      int i = operations.get(position);
+      BulkUserPatch item = items.get(i);
+      String previous = existing.get(item.getId());
+      BulkUserResult.BulkUserResultBuilder result = BulkUserResult.builder().index(i).id(item.getId());
+      if (duplicates.contains(position)) {
+        result.status(BulkUserResult.Status.CONFLICT).username(item.getUsername()).message("Username already exists");
+      } else if (!updatable.containsKey(item.getId())) {
+        result.status(BulkUserResult.Status.NOT_FOUND).username(previous).message("User not found");
+        userCacheInvalidator.evictById(item.getId());
+      } else {
+        result.status(BulkUserResult.Status.UPDATED)
+            .username(item.getUsername() != null ? item.getUsername() : previous);
+        evicted.add(previous);
+        evicted.add(item.getUsername());
+        userCacheInvalidator.evictById(item.getId());
+      }
+      results[i - from] = result.build();
+    }
+    userCacheInvalidator.evict(evicted.toArray(String[]::new));
+    return List.of(results);
+  }
+
+  /*
+   * Recorre los usuarios que cumplen el filtro por keyset sobre _id, batch-size por vez: una lectura
+   * (id, username y version) y una escritura por lote. La escritura va por los _id leídos y repite el filtro:
+   * modificar el campo filtrado no hace saltar ni repetir usuarios, y un usuario que dejó de cumplir el
+   * filtro entre la lectura y la escritura no se toca. Si la escritura no afectó a todo el lote, se relee
+   * para informar cuáles quedaron afuera.
+   */
+  private BulkUsersResponse forEachMatching(String operation, UserFilter filter, long start,
+                                            BulkUserResult.Status status, ToLongFunction<Query> write) {
+    List<Criteria> criteria = toCriteria(filter);
+    List<BulkUserResult> results = new ArrayList<>();
+    boolean truncated = false;
+    String afterId = null;
+    while (true) {
+      int limit = Math.min(batchSize, maxItems - results.size());
+      if (limit == 0) {
+        truncated = mongoTemplate.exists(matching(criteria, afterId, 1), User.class);
+        break;
+      }
+      List<User> page = mongoTemplate.find(matching(criteria, afterId, limit), User.class);
+      if (page.isEmpty()) {
+        break;
+      }
+      List<String> ids = page.stream().map(User::getId).toList();
+      Query target = Query.query(Criteria.where("_id").in(ids));
+      criteria.forEach(target::addCriteria);
+      long written = write.applyAsLong(target);
+      Map<String, BulkUserResult> skipped = written == ids.size() ? Map.of() : skipped(page, status, written);
+      for (User user : page) {
+        BulkUserResult result = skipped.get(user.getId());
+        results.add(result != null ? result : BulkUserResult.builder()
+            .index(-1)
+            .id(user.getId())
+            .username(user.getUsername())
+            .status(status)
+            .build());
+        userCacheInvalidator.evictById(user.getId());
+      }
+      userCacheInvalidator.evict(page.stream().map(User::getUsername).toArray(String[]::new));
+      if (page.size() < limit) {
+        break;
+      }
+      afterId = ids.get(ids.size() - 1);
+    }
+    return response(operation, results, truncated, start, status);
+  }
+
+  /*
+   * Usuarios del lote que la escritura no afectó. Borrado por otro request: NOT_FOUND. Todavía existe sin cambios
+   * de este request (version igual a la leída, o sigue ahí en una baja): dejó de cumplir el filtro, CONFLICT.
+   * En una baja, si desaparecieron más usuarios de los que borró este request, no se puede saber cuáles
+   * borró: todos los desaparecidos quedan NOT_FOUND.
+   */
+  private Map<String, BulkUserResult> skipped(List<User> page, BulkUserResult.Status status, long written) {
+    Query query = Query.query(Criteria.where("_id").in(page.stream().map(User::getId).toList()));
+    query.fields().include("version");
+    Map<String, Long> current = new HashMap<>();
+    for (User user : mongoTemplate.find(query, User.class)) {
+      current.put(user.getId(), user.getVersion() == null ? NO_VERSION : user.getVersion());
+    }
+    boolean deleting = status == BulkUserResult.Status.DELETED;
+    boolean deletesAttributable = page.size() - current.size() == written;
+
+    Map<String, BulkUserResult> skipped = new HashMap<>();
+    for (User user : page) {
+      BulkUserResult.BulkUserResultBuilder result = BulkUserResult.builder()
+          .index(-1)
+          .id(user.getId())
+          .username(user.getUsername());
+      Long version = current.get(user.getId());
+      if (version == null) {
+        if (deleting && deletesAttributable) {
+          continue;
+        }
+        skipped.put(user.getId(), result.status(BulkUserResult.Status.NOT_FOUND)
+            .message(deleting ? DELETED_CONCURRENTLY : "User not found")
+            .build());
+      } else if (deleting || version.equals(user.getVersion() == null ? NO_VERSION : user.getVersion())) {
+        skipped.put(user.getId(), result.status(BulkUserResult.Status.CONFLICT)
+            .message("User no longer matches the filter")
+            .build());
+      }
+    }
+    return skipped;
+  }
+
+  private static Query matching(List<Criteria> criteria, String afterId, int limit) {
+    Query query = new Query();
+    criteria.forEach(query::addCriteria);
+    if (afterId != null) {
+      query.addCriteria(Criteria.where("_id").gt(afterId));
+    }
+    query.with(Sort.by("_id")).limit(limit);
+    query.fields().include("username").include("version");
+    return query;
+  }
+
+  private List<Criteria> toCriteria(UserFilter filter) {
+    List<Criteria> criteria = new ArrayList<>(2);
+    if (filter.getRole() != null) {
+      criteria.add(userRoleStorage.hasRole(parseRole(filter.getRole())));
+    }
+    if (filter.getActive() != null) {
+      criteria.add(Criteria.where("active").is(filter.getActive()));
+    }
+    if (criteria.isEmpty()) {
+      // Un filtro vacío afectaría a todos los usuarios
+      throw new IllegalArgumentException("Filter needs role or active");
+    }
+    return criteria;
+  }
+
+  private Map<String, String> usernamesById(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    Query query = Query.query(Criteria.where("_id").in(ids));
+    query.fields().include("username");
+    Map<String, String> usernames = new HashMap<>();
+    for (User user : mongoTemplate.find(query, User.class)) {
+      usernames.put(user.getId(), user.getUsername());
+    }
+    return usernames;
+  }
+
+  // $set solo con los campos enviados, más el incremento de version que usa el PATCH individual
+  private Update toUpdate(BulkUserPatch patch) {
+    Update update = new Update().inc("version", 1);
+    if (patch.getName() != null) {
+      update.set("name", patch.getName());
+    }
+    if (patch.getUsername() != null) {
+      update.set("username", patch.getUsername());
+    }
+    if (patch.getRoles() != null) {
+      userRoleStorage.setRoles(update, patch.getRoles().stream()
+          .map(UserBulkServiceImpl::parseRole)
+          .collect(Collectors.toCollection(() -> EnumSet.noneOf(Role.class))));
+    }
+    if (patch.getActive() != null) {
+      update.set("active", patch.getActive());
+    }
+    return update;
+  }
+
+  private String validate(BulkUserPatch patch) {
+    if (patch.getName() == null && patch.getUsername() == null && patch.getRoles() == null
+        && patch.getActive() == null) {
+      return "No fields to update";
+    }
+    if (patch.getRoles() != null) {
+      for (String role : patch.getRoles()) {
+        try {
+          parseRole(role);
+        } catch (IllegalArgumentException e) {
+          return e.getMessage();
+        }
+      }
+    }
+    Set<ConstraintViolation<BulkUserPatch>> violations = validator.validate(patch);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream()
+        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.joining(", "));
+  }
+
+  private static Role parseRole(String role) {
+    try {
+      return Role.valueOf(role);
+    } catch (IllegalArgumentException | NullPointerException e) {
+      throw new IllegalArgumentException("Invalid role: " + role);
+    }
+  }
+
+  private void checkSize(int size) {
+    if (size > maxItems) {
+      throw new IllegalArgumentException("Too many items, max " + maxItems);
+    }
+  }
+
+  private static BulkUsersResponse response(String operation, List<BulkUserResult> results, boolean truncated,
+                                            long start, BulkUserResult.Status success) {
+    int succeeded = count(results, success);
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    log.info("{}: {} usuarios, {} aplicados en {} ms", operation, results.size(), succeeded, elapsedMs);
+    return BulkUsersResponse.builder()
+        .total(results.size())
+        .succeeded(succeeded)
+        .failed(results.size() - succeeded)
+        .elapsedMs(elapsedMs)
+        .truncated(truncated)
+        .results(results)
+        .build();
+  }
+
+  private String validate(UserDTO dto) {
+    if (dto.getUsername() == null || dto.getUsername().isBlank()) {
+      return "username is required";
+    }
+    if (dto.getPassword() == null) {
+      return "password is required";
+    }
+    Set<ConstraintViolation<UserDTO>> violations = validator.validate(dto);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream()
+        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.joining(", "));
+  }
+
+  private static int count(List<BulkUserResult> results, BulkUserResult.Status status) {
+    return (int) results.stream().filter(result -> result.getStatus() == status).count();
+  }
+
+  private static final class Pending {
+    private final int index;
+    private final String username;
+    private final UserDTO dto;
+    private User user;
+    private CompletableFuture<String> hash;
+    private String error;
+    private boolean failed;
+
+    private Pending(int index, UserDTO dto) {
+      this.index = index;
+      this.username = dto.getUsername();
+      this.dto = dto;
+    }
+
+    private Pending(int index, String username, String error) {
+      this.index = index;
+      this.username = username;
+      this.dto = null;
+      this.error = error;
+    }
+  }
+}
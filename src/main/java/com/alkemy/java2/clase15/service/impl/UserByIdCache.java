@@ -0,0 +1,113 @@
+package com.alkemy.java2.clase15.service.impl;
+
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.VersionedUser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Cache read-through de usuarios por id para GET /api/v1/users/{id}. Guarda la vista pública
+ * (sin password, roles ordenados) y su ETag: un SHA-256 del JSON, calculado una vez por carga.
+ * Los ids inexistentes no se cachean. Se invalida desde UserCacheInvalidator.
+ * La carga corre fuera de los locks del mapa ({@link NonPinningCache}).
+ *
+ * <p>El valor cacheado se comparte entre requests y {@link UserDTO} es mutable (por ejemplo la proyección
+ * de fields lo modifica): cada método devuelve una copia propia, nunca el objeto guardado.
+ */
+@Component
+public class UserByIdCache {
+
+  private final NonPinningCache<String, VersionedUser> cache;
+  private final ObjectMapper objectMapper;
+
+  public UserByIdCache(@Value("${app.users.by-id-cache.ttl-ms:60000}") long ttlMs,
+                       @Value("${app.users.by-id-cache.max-size:10000}") long maxSize,
+                       MeterRegistry meterRegistry,
+                       ObjectMapper objectMapper) {
+    this.cache = new NonPinningCache<>(Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(ttlMs))
+        .recordStats());
+    this.objectMapper = objectMapper;
+    CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "users.by-id");
+  }
+
+  public Optional<VersionedUser> get(String id, Function<String, Optional<UserDTO>> loader) {
+    return cache.get(id, key -> loader.apply(key).map(this::versioned).orElse(null))
+        .map(UserByIdCache::copy);
+  }
+
+  // Bulk read-through: los ids ausentes se cargan juntos con una sola llamada al loader
+  public Map<String, VersionedUser> getAll(Collection<String> ids,
+                                           Function<Set<String>, Map<String, UserDTO>> loader) {
+    Map<String, VersionedUser> found = cache.getAll(ids, missing -> {
+      Map<String, VersionedUser> loaded = new HashMap<>();
+      loader.apply(missing).forEach((id, dto) -> loaded.put(id, versioned(dto)));
+      return loaded;
+    });
+    found.replaceAll((id, user) -> copy(user));
+    return found;
+  }
+
+  // Sin loader, para el stack reactivo: el miss se resuelve sin bloquear y se guarda con put
+  public Optional<VersionedUser> getIfPresent(String id) {
+    return cache.getIfPresent(id).map(UserByIdCache::copy);
+  }
+
+  public VersionedUser put(String id, UserDTO dto) {
+    VersionedUser user = versioned(dto);
+    cache.put(id, user);
+    return copy(user);
+  }
+
+  public void evict(String id) {
+    cache.invalidate(id);
+  }
+
+  private VersionedUser versioned(UserDTO dto) {
+    // Copia propia: el ETag tiene que corresponder exactamente a lo que se serializa
+    UserDTO view = view(dto);
+    return new VersionedUser(view, etag(view));
+  }
+
+  private static VersionedUser copy(VersionedUser cached) {
+    return new VersionedUser(view(cached.getUser()), cached.getEtag());
+  }
+
+  // Vista pública: sin password y con los roles ordenados en un set propio
+  private static UserDTO view(UserDTO dto) {
+    return UserDTO.builder()
+        .id(dto.getId())
+        .name(dto.getName())
+        .username(dto.getUsername())
+        .roles(dto.getRoles() == null ? null : new TreeSet<>(dto.getRoles()))
+        .version(dto.getVersion())
+        .build();
+  }
+
+  private String etag(UserDTO view) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(view));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Could not compute ETag for user " + view.getId(), e);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.alkemy.java2.clase15.service.impl;
+
+import com.alkemy.java2.clase15.enums.UserSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición de keyset (orden, último _id, último valor del campo de orden) codificada como token opaco.
+ * El cliente solo la reenvía; el formato puede cambiar sin romper el contrato.
+ *
+ * <p>Un valor null (name o username sin cargar) se codifica omitiendo la tercera parte, así se distingue
+ * de un string vacío y la página siguiente arranca dentro de los null, que Mongo ordena primero.
+ */
+record UserCursor(UserSort sort, String lastId, String lastValue) {
+
+  private static final String SEPARATOR = "\n";
+
+  String encode() {
+    String raw = sort.getParam() + SEPARATOR + lastId + (lastValue == null ? "" : SEPARATOR + lastValue);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static UserCursor decode(String token, UserSort expectedSort) {
+    String[] parts;
+    try {
+      parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    if (parts.length < 2 || UserSort.fromParam(parts[0]) != expectedSort) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    return new UserCursor(expectedSort, parts[1], parts.length == 3 ? parts[2] : null);
+  }
+}
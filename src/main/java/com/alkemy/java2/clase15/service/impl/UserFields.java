@@ -0,0 +1,58 @@
+package com.alkemy.java2.clase15.service.impl;
+
+import com.alkemy.java2.clase15.dto.UserDTO;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldsets de lectura ({@code fields=id,name}). Se traducen a la proyección de Mongo,
+ * así los campos no pedidos no se leen ni se serializan. El password nunca es seleccionable.
+ */
+final class UserFields {
+
+  static final Set<String> READABLE = Set.of("id", "name", "username", "roles", "version");
+
+  private UserFields() {
+  }
+
+  // Sin fields= se devuelven todos los campos legibles
+  static Set<String> parse(String fields) {
+    if (fields == null || fields.isBlank()) {
+      return READABLE;
+    }
+    Set<String> requested = Arrays.stream(fields.split(","))
+        .map(String::trim)
+        .filter(field -> !field.isEmpty())
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    for (String field : requested) {
+      if (!READABLE.contains(field)) {
+        throw new IllegalArgumentException("Unsupported field: " + field);
+      }
+    }
+    return requested.isEmpty() ? READABLE : requested;
+  }
+
+  // Limpia lo que la proyección tuvo que traer igual (p. ej. el campo de orden del keyset)
+  static UserDTO restrict(UserDTO dto, Set<String> fields) {
+    if (!fields.contains("id")) {
+      dto.setId(null);
+    }
+    if (!fields.contains("name")) {
+      dto.setName(null);
+    }
+    if (!fields.contains("username")) {
+      dto.setUsername(null);
+    }
+    if (!fields.contains("roles")) {
+      dto.setRoles(null);
+    }
+    if (!fields.contains("version")) {
+      dto.setVersion(null);
+    }
+    dto.setPassword(null);
+    return dto;
+  }
+}
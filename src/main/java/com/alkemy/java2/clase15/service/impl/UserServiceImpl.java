@@ -1,24 +1,69 @@
 package com.alkemy.java2.clase15.service.impl;
 
+import com.alkemy.java2.clase15.authsecurity.service.UserCacheInvalidator;
+import com.alkemy.java2.clase15.dto.UserBatchItem;
 import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.UserPage;
+import com.alkemy.java2.clase15.dto.UserPatchRequest;
+import com.alkemy.java2.clase15.dto.VersionedUser;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.enums.UserSort;
+import com.alkemy.java2.clase15.exception.UserNotFoundException;
+import com.alkemy.java2.clase15.exception.UserVersionConflictException;
+import com.alkemy.java2.clase15.exception.UsernameAlreadyExistsException;
 import com.alkemy.java2.clase15.mapper.UserMapper;
 import com.alkemy.java2.clase15.model.User;
 import com.alkemy.java2.clase15.repository.UserRepository;
+import com.alkemy.java2.clase15.repository.UserRoleStorage;
 import com.alkemy.java2.clase15.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
   private final UserRepository userRepository;
   private final UserMapper userMapper;
+  private final UserCacheInvalidator userCacheInvalidator;
+  private final ObjectMapper objectMapper;
+  private final UserByIdCache userByIdCache;
+  private final PasswordEncoder passwordEncoder;
+  private final UserRoleStorage userRoleStorage;
 
+  @Value("${app.users.page.default-size:50}")
+  private int defaultPageSize;
+
+  @Value("${app.users.page.max-size:200}")
+  private int maxPageSize;
+
+  @Value("${app.users.batch.max-ids:500}")
+  private int maxBatchIds;
+
+  @Value("${app.users.export.batch-size:500}")
+  private int exportBatchSize;
 
   @Override
   public List<UserDTO> getAllUsers() {
@@ -27,42 +72,231 @@ public class UserServiceImpl implements UserService {
         .collect(Collectors.toList());
   }
 
+  @Override
+  public UserPage getUsers(String cursor, Integer limit, String sort, String fields) {
+    Set<String> selected = UserFields.parse(fields);
+    UserSort userSort = UserSort.fromParam(sort == null ? UserSort.ID.getParam() : sort);
+    int pageSize = Math.min(limit == null ? defaultPageSize : Math.max(1, limit), maxPageSize);
+    UserCursor after = cursor == null ? null : UserCursor.decode(cursor, userSort);
+
+    // Se pide uno de más solo para saber si hay página siguiente
+    List<User> users = userRepository.findPage(userSort,
+        after == null ? null : after.lastValue(),
+        after == null ? null : after.lastId(),
+        pageSize + 1,
+        selected);
+    return toPage(users, pageSize, userSort, selected, userMapper);
+  }
+
+  @Override
+  public long exportUsers(OutputStream out, String fields) throws IOException {
+    Set<String> selected = UserFields.parse(fields);
+    long count = 0;
+    // Un documento por línea: el cursor trae lotes de exportBatchSize y cada usuario se escribe
+    // apenas se lee. Si el cliente lee lento, el write bloquea y el cursor deja de avanzar.
+    // Sin flush por usuario: el buffer del generator y el del contenedor agrupan las escrituras.
+    ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try (Stream<User> users = userRepository.streamAll(exportBatchSize, selected);
+         JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // El separador por defecto entre valores raíz es un espacio; acá separa el '\n' de cada línea
+      generator.setRootValueSeparator(null);
+      Iterator<User> iterator = users.iterator();
+      while (iterator.hasNext()) {
+        writer.writeValue(generator, UserFields.restrict(userMapper.toDTO(iterator.next()), selected));
+        generator.writeRaw('\n');
+        count++;
+      }
+    }
+    log.info("Export de usuarios: {} documentos", count);
+    return count;
+  }
+
+  @Override
+  public UserPage searchUsers(String namePrefix, String role, Boolean active, String cursor, Integer limit,
+                              String fields) {
+    Set<String> selected = UserFields.parse(fields);
+    Role userRole = null;
+    if (role != null) {
+      try {
+        userRole = Role.valueOf(role);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid role: " + role);
+      }
+    }
+    int pageSize = Math.min(limit == null ? defaultPageSize : Math.max(1, limit), maxPageSize);
+    // La búsqueda siempre ordena por (name, _id), así que el cursor es el mismo que el del listado por name
+    UserCursor after = cursor == null ? null : UserCursor.decode(cursor, UserSort.NAME);
+
+    List<User> users = userRepository.search(userRole, active, namePrefix,
+        after == null ? null : after.lastValue(),
+        after == null ? null : after.lastId(),
+        pageSize + 1,
+        selected);
+    return toPage(users, pageSize, UserSort.NAME, selected, userMapper);
+  }
+
+  // users trae hasta pageSize + 1 elementos: el sobrante solo indica que hay página siguiente
+  static UserPage toPage(List<User> users, int pageSize, UserSort sort, Set<String> selected, UserMapper mapper) {
+    String nextCursor = null;
+    if (users.size() > pageSize) {
+      users = users.subList(0, pageSize);
+      User last = users.get(pageSize - 1);
+      nextCursor = new UserCursor(sort, last.getId(), sortValue(sort, last)).encode();
+    }
+    return UserPage.builder()
+        .items(users.stream()
+            .map(user -> UserFields.restrict(mapper.toDTO(user), selected))
+            .collect(Collectors.toList()))
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  private static String sortValue(UserSort sort, User user) {
+    return switch (sort) {
+      case ID -> null;
+      case USERNAME -> user.getUsername();
+      case NAME -> user.getName();
+    };
+  }
+
   @Override
   public UserDTO createUser(UserDTO userDTO) {
     // Mapear DTO a entidad
     User user = userMapper.toEntity(userDTO);
-    // Guardar entidad en la base de datos
-    User savedUser = userRepository.save(user);
+    // Insertar entidad; el índice único de username rechaza duplicados
+    User savedUser;
+    try {
+      savedUser = userRepository.insert(user);
+    } catch (DuplicateKeyException e) {
+      throw new UsernameAlreadyExistsException(e);
+    }
+    userCacheInvalidator.evict(savedUser.getUsername());
     // Mapear entidad guardada de vuelta a DTO
     return userMapper.toDTO(savedUser);
   }
 
-   public Optional<UserDTO> getUserById(String id) {
-    // Buscar entidad y mapear a DTO si está presente
-    return userRepository.findById(id)
-        .map(userMapper::toDTO);
+  @Override
+  public Optional<VersionedUser> getUserById(String id) {
+    // Read-through: solo va a Mongo en un miss; la cache guarda la vista pública y su ETag
+    return userByIdCache.get(id, key -> userRepository.findById(key).map(userMapper::toDTO));
+  }
+
+  @Override
+  public List<UserBatchItem> getUsersByIds(List<String> ids) {
+    List<String> requested = ids == null ? List.of() : ids;
+    if (requested.size() > maxBatchIds) {
+      throw new IllegalArgumentException("Batch exceeds " + maxBatchIds + " ids");
+    }
+    if (requested.stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("ids must not contain null");
+    }
+    // Los que no están en cache se resuelven con un único $in sobre _id
+    Map<String, VersionedUser> found = userByIdCache.getAll(new LinkedHashSet<>(requested), missing ->
+        userRepository.findAllById(missing).stream()
+            .collect(Collectors.toMap(User::getId, userMapper::toDTO)));
+    return requested.stream()
+        .map(id -> {
+          VersionedUser user = found.get(id);
+          return UserBatchItem.builder()
+              .id(id)
+              .found(user != null)
+              .user(user == null ? null : user.getUser())
+              .build();
+        })
+        .collect(Collectors.toList());
   }
 
   @Override
   public UserDTO updateUser(String id, UserDTO userDTO) {
     // Obtener la entidad existente
     User existingUser = userRepository.findById(id)
-        .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        .orElseThrow(() -> new UserNotFoundException(id));
+    String previousUsername = existingUser.getUsername();
     // Actualizar valores desde el DTO
     existingUser.setName(userDTO.getName());
     existingUser.setUsername(userDTO.getUsername());
     existingUser.setPassword(userDTO.getPassword());
+    existingUser.setVersion(existingUser.getVersion() == null ? 1 : existingUser.getVersion() + 1);
     // Guardar cambios y mapear de vuelta a DTO
-    User updatedUser = userRepository.save(existingUser);
+    User updatedUser;
+    try {
+      updatedUser = userRepository.save(existingUser);
+    } catch (DuplicateKeyException e) {
+      throw new UsernameAlreadyExistsException(e);
+    }
+    userCacheInvalidator.evict(previousUsername, updatedUser.getUsername());
+    userCacheInvalidator.evictById(id);
     return userMapper.toDTO(updatedUser);
   }
 
   @Override
-  public void deleteUser(String id) {
-    // Intentar borrar la entidad si está presente
-    if (!userRepository.existsById(id)) {
-      throw new RuntimeException("User not found with id: " + id);
+  public UserDTO patchUser(String id, UserPatchRequest patch) {
+    Set<Role> roles = patch.getRoles() == null ? null : patch.getRoles().stream()
+        .map(Role::valueOf)
+        .collect(Collectors.toSet());
+    String encodedPassword = patch.getPassword() == null ? null : passwordEncoder.encode(patch.getPassword());
+
+    Update update = new Update();
+    setIfPresent(update, "name", patch.getName());
+    setIfPresent(update, "username", patch.getUsername());
+    setIfPresent(update, "password", encodedPassword);
+    if (roles != null) {
+      userRoleStorage.setRoles(update, roles);
+    }
+    if (update.getUpdateObject().isEmpty()) {
+      throw new IllegalArgumentException("No fields to update");
+    }
+
+    // Un solo findAndModify con $set de lo enviado. Devuelve el documento previo porque hace falta
+    // el username anterior para invalidar caches; el nuevo estado se deriva aplicando el mismo $set.
+    User previous;
+    try {
+      previous = userRepository.updateAndGetPrevious(id, update, patch.getVersion())
+          .orElseThrow(() -> patch.getVersion() != null && userRepository.existsById(id)
+              ? new UserVersionConflictException(id, patch.getVersion())
+              : new UserNotFoundException(id));
+    } catch (DuplicateKeyException e) {
+      throw new UsernameAlreadyExistsException(e);
+    }
+    String previousUsername = previous.getUsername();
+
+    User updated = previous;
+    if (patch.getName() != null) {
+      updated.setName(patch.getName());
     }
-    userRepository.deleteById(id);
+    if (patch.getUsername() != null) {
+      updated.setUsername(patch.getUsername());
+    }
+    if (encodedPassword != null) {
+      updated.setPassword(encodedPassword);
+    }
+    if (roles != null) {
+      updated.setRoles(roles);
+    }
+    updated.setVersion(previous.getVersion() == null ? 1 : previous.getVersion() + 1);
+
+    userCacheInvalidator.evict(previousUsername, updated.getUsername());
+    userCacheInvalidator.evictById(id);
+    UserDTO dto = userMapper.toDTO(updated);
+    dto.setPassword(null);
+    return dto;
+  }
+
+  private static void setIfPresent(Update update, String field, Object value) {
+    if (value != null) {
+      update.set(field, value);
+    }
+  }
+
+  @Override
+  public void deleteUser(String id) {
+    // Un solo findAndRemove: null equivale a deletedCount == 0. Devuelve el username (proyectado)
+    // porque las caches de principal y estado están indexadas por username.
+    User deleted = userRepository.deleteAndGetUsername(id)
+        .orElseThrow(() -> new UserNotFoundException(id));
+    userCacheInvalidator.evict(deleted.getUsername());
+    userCacheInvalidator.evictById(id);
   }
+
 }
@@ -0,0 +1,122 @@
+package com.alkemy.java2.clase15.controller;
+
+import com.alkemy.java2.clase15.authsecurity.dto.AuthResponse;
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mismo contrato HTTP contra los dos stacks: cada subclase levanta la app en un puerto real
+ * (MVC o WebFlux) y los tests no saben cuál de los dos responde.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+abstract class AbstractUserApiContractIntegrationTest {
+
+  @Container
+  static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:latest");
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+  }
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private String token;
+
+  @BeforeEach
+  void setUp() {
+    userRepository.deleteAll();
+    AuthResponse auth = webTestClient.post().uri("/api/v1/auth/register")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(user("admin@example.com", "ADMIN"))
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(AuthResponse.class)
+        .returnResult().getResponseBody();
+    assertNotNull(auth);
+    token = auth.getToken();
+  }
+
+  @Test
+  void sinToken_devuelve403() {
+    webTestClient.get().uri("/api/v1/users")
+        .exchange()
+        .expectStatus().isForbidden();
+  }
+
+  @Test
+  void crearYObtener_devuelveETag() {
+    UserDTO created = authorized(webTestClient.post().uri("/api/v1/users"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(user("nuevo@example.com", "USER"))
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody(UserDTO.class)
+        .returnResult().getResponseBody();
+    assertNotNull(created);
+
+    authorized(webTestClient.get().uri("/api/v1/users/{id}", created.getId()))
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().exists(HttpHeaders.ETAG)
+        .expectBody().jsonPath("$.username").isEqualTo("nuevo@example.com");
+  }
+
+  @Test
+  void obtenerInexistente_devuelve404() {
+    authorized(webTestClient.get().uri("/api/v1/users/{id}", "000000000000000000000000"))
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  void listar_devuelvePagina() {
+    authorized(webTestClient.get().uri("/api/v1/users?limit=10"))
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$[0].username").isEqualTo("admin@example.com");
+  }
+
+  @Test
+  void eliminar_devuelve204() {
+    String id = userRepository.findAll().get(0).getId();
+    authorized(webTestClient.delete().uri("/api/v1/users/{id}", id))
+        .exchange()
+        .expectStatus().isNoContent();
+  }
+
+  private <S extends WebTestClient.RequestHeadersSpec<?>> S authorized(S spec) {
+    spec.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    return spec;
+  }
+
+  private static UserDTO user(String username, String role) {
+    return UserDTO.builder()
+        .name("Usuario Contrato")
+        .username(username)
+        .password("pass12345")
+        .roles(Set.of(role))
+        .build();
+  }
+}
@@ -0,0 +1,8 @@
+package com.alkemy.java2.clase15.controller;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// Contrato contra el stack WebFlux
+@ActiveProfiles("reactive")
+class ReactiveUserApiContractIntegrationTest extends AbstractUserApiContractIntegrationTest {
+}
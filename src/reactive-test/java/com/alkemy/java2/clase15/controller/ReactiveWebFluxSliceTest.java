@@ -0,0 +1,192 @@
+package com.alkemy.java2.clase15.controller;
+
+import com.alkemy.java2.clase15.authsecurity.controller.ReactiveAuthController;
+import com.alkemy.java2.clase15.authsecurity.dto.AuthRequest;
+import com.alkemy.java2.clase15.authsecurity.dto.AuthResponse;
+import com.alkemy.java2.clase15.authsecurity.dto.VerifiedToken;
+import com.alkemy.java2.clase15.authsecurity.service.CalibratedPasswordEncoderFactory;
+import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.LoginRateLimiter;
+import com.alkemy.java2.clase15.authsecurity.service.ReactiveAuthService;
+import com.alkemy.java2.clase15.authsecurity.service.ReactiveCustomUserDetailsService;
+import com.alkemy.java2.clase15.authsecurity.service.UserStatusService;
+import com.alkemy.java2.clase15.config.GlobalExceptionHandler;
+import com.alkemy.java2.clase15.config.ReactiveSecurityConfig;
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.VersionedUser;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.exception.LoginThrottledException;
+import com.alkemy.java2.clase15.exception.PasswordHashingBusyException;
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.ReactiveUserRepository;
+import com.alkemy.java2.clase15.service.ReactiveUserService;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Slice WebFlux sin Docker: la cadena real de ReactiveSecurityConfig (filtro JWT y entry point) y el
+ * GlobalExceptionHandler sobre los controllers reactivos, con los servicios mockeados.
+ */
+// Sin el usuario en memoria de Boot: en la app real el ReactiveCustomUserDetailsService lo reemplaza
+@WebFluxTest(controllers = {ReactiveAuthController.class, ReactiveUserController.class},
+    excludeAutoConfiguration = ReactiveUserDetailsServiceAutoConfiguration.class)
+@Import({ReactiveSecurityConfig.class, GlobalExceptionHandler.class})
+class ReactiveWebFluxSliceTest {
+
+  private static final String USERNAME = "user@email.com";
+  private static final String TOKEN = "valid.jwt.token";
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @MockitoBean
+  private ReactiveAuthService authService;
+  @MockitoBean
+  private LoginRateLimiter loginRateLimiter;
+  @MockitoBean
+  private ReactiveUserService userService;
+  @MockitoBean
+  private JwtService jwtService;
+  @MockitoBean
+  private ReactiveCustomUserDetailsService userDetailsService;
+  @MockitoBean
+  private UserStatusService userStatusService;
+  @MockitoBean
+  private ReactiveUserRepository userRepository;
+  @MockitoBean
+  private CalibratedPasswordEncoderFactory passwordEncoderFactory;
+
+  @Test
+  @DisplayName("register es público y devuelve el token del servicio")
+  void register_Public_ReturnsToken() {
+    // Arrange
+    when(authService.register(any(UserDTO.class)))
+        .thenReturn(Mono.just(AuthResponse.builder().token(TOKEN).build()));
+
+    // Act & Assert
+    webTestClient.post().uri("/api/v1/auth/register")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(UserDTO.builder().name("User").username(USERNAME).password("password123").build())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$.token").isEqualTo(TOKEN);
+  }
+
+  @Test
+  @DisplayName("login throttled responde 429 con Retry-After")
+  void login_Throttled_Returns429() {
+    // Arrange
+    when(authService.authenticate(any(AuthRequest.class)))
+        .thenReturn(Mono.error(new LoginThrottledException("Too many login attempts", 30)));
+
+    // Act & Assert
+    webTestClient.post().uri("/api/v1/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(login())
+        .exchange()
+        .expectStatus().isEqualTo(429)
+        .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "30")
+        .expectBody().jsonPath("$.message").isEqualTo("Too many login attempts");
+  }
+
+  @Test
+  @DisplayName("límite por IP lanzado en el controller también responde 429")
+  void login_ClientThrottled_Returns429() {
+    // Arrange
+    doThrow(new LoginThrottledException("Too many login attempts", 5))
+        .when(loginRateLimiter).acquireForClient(any());
+
+    // Act & Assert
+    webTestClient.post().uri("/api/v1/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(login())
+        .exchange()
+        .expectStatus().isEqualTo(429)
+        .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "5");
+    verifyNoInteractions(authService);
+  }
+
+  @Test
+  @DisplayName("pool de hashing saturado responde 503 con Retry-After")
+  void login_HashingBusy_Returns503() {
+    // Arrange
+    when(authService.authenticate(any(AuthRequest.class)))
+        .thenReturn(Mono.error(new PasswordHashingBusyException("Password hashing is busy", 1)));
+
+    // Act & Assert
+    webTestClient.post().uri("/api/v1/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(login())
+        .exchange()
+        .expectStatus().isEqualTo(503)
+        .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+  }
+
+  @Test
+  @DisplayName("ruta protegida sin token responde 403 como en MVC")
+  void protectedPath_WithoutToken_Returns403() {
+    // Act & Assert
+    webTestClient.get().uri("/api/v1/users/123")
+        .exchange()
+        .expectStatus().isForbidden();
+    verifyNoInteractions(userService);
+  }
+
+  @Test
+  @DisplayName("token inválido responde 401 sin llegar al controller")
+  void protectedPath_InvalidToken_Returns401() {
+    // Arrange
+    when(jwtService.verify("bad.token")).thenThrow(new JwtException("Invalid signature"));
+
+    // Act & Assert
+    webTestClient.get().uri("/api/v1/users/123")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer bad.token")
+        .exchange()
+        .expectStatus().isUnauthorized();
+    verifyNoInteractions(userService);
+  }
+
+  @Test
+  @DisplayName("token válido autentica y el controller responde con ETag")
+  void protectedPath_ValidToken_ReturnsUser() {
+    // Arrange
+    User user = User.builder().username(USERNAME).password("x").active(true).roles(Set.of(Role.USER)).build();
+    when(jwtService.verify(TOKEN)).thenReturn(VerifiedToken.builder()
+        .subject(USERNAME)
+        .roles(List.of(Role.USER.name()))
+        .expiresAt(Instant.now().plusSeconds(60))
+        .build());
+    when(userDetailsService.loadUser(USERNAME)).thenReturn(Mono.just(user));
+    when(userService.getUserById("123")).thenReturn(Mono.just(
+        new VersionedUser(UserDTO.builder().id("123").username(USERNAME).build(), "\"1\"")));
+
+    // Act & Assert
+    webTestClient.get().uri("/api/v1/users/123")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+        .expectBody().jsonPath("$.username").isEqualTo(USERNAME);
+  }
+
+  private static AuthRequest login() {
+    return AuthRequest.builder().username(USERNAME).password("password123").build();
+  }
+}
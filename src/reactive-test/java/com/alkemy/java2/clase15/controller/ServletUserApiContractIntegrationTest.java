@@ -0,0 +1,5 @@
+package com.alkemy.java2.clase15.controller;
+
+// Contrato contra el stack MVC (default)
+class ServletUserApiContractIntegrationTest extends AbstractUserApiContractIntegrationTest {
+}
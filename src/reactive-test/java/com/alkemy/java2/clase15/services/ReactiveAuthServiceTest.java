@@ -0,0 +1,188 @@
+package com.alkemy.java2.clase15.services;
+
+import com.alkemy.java2.clase15.authsecurity.dto.AuthRequest;
+import com.alkemy.java2.clase15.authsecurity.service.BoundedPasswordEncoder;
+import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.LoginRateLimiter;
+import com.alkemy.java2.clase15.authsecurity.service.ReactiveAuthService;
+import com.alkemy.java2.clase15.authsecurity.service.ReactiveCustomUserDetailsService;
+import com.alkemy.java2.clase15.authsecurity.service.UserCacheInvalidator;
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.exception.PasswordHashingBusyException;
+import com.alkemy.java2.clase15.exception.UsernameAlreadyExistsException;
+import com.alkemy.java2.clase15.mapper.UserMapper;
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.ReactiveUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.authentication.BadCredentialsException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveAuthServiceTest {
+
+  private static final String USERNAME = "user@email.com";
+  private static final String PASSWORD = "clave12345";
+  private static final String ENCODED = "{bcrypt}encoded";
+  private static final String TOKEN = "test.jwt.token";
+
+  private static final AuthRequest AUTH_REQUEST = AuthRequest.builder()
+      .username(USERNAME)
+      .password(PASSWORD)
+      .build();
+
+  @Mock
+  private ReactiveUserRepository userRepository;
+  @Mock
+  private ReactiveCustomUserDetailsService userDetailsService;
+  @Mock
+  private UserMapper userMapper;
+  @Mock
+  private BoundedPasswordEncoder passwordEncoder;
+  @Mock
+  private JwtService jwtService;
+  @Mock
+  private UserCacheInvalidator userCacheInvalidator;
+  @Mock
+  private LoginRateLimiter loginRateLimiter;
+
+  private ReactiveAuthService authService;
+
+  @BeforeEach
+  void setUp() {
+    authService = new ReactiveAuthService(userRepository, userDetailsService, userMapper, passwordEncoder,
+        jwtService, userCacheInvalidator, loginRateLimiter);
+  }
+
+  @Test
+  @DisplayName("register - hashea en el pool, inserta y devuelve el token")
+  void register_Success_ReturnsToken() {
+    // Arrange
+    UserDTO request = UserDTO.builder().username(USERNAME).password(PASSWORD).build();
+    User user = User.builder().username(USERNAME).roles(Set.of(Role.USER)).build();
+    when(userMapper.toEntity(request)).thenReturn(user);
+    when(passwordEncoder.encodeAsync(PASSWORD)).thenReturn(completedFuture(ENCODED));
+    when(userRepository.insert(user)).thenReturn(Mono.just(user));
+    when(jwtService.generateToken(user)).thenReturn(TOKEN);
+
+    // Act & Assert
+    StepVerifier.create(authService.register(request))
+        .expectNextMatches(response -> TOKEN.equals(response.getToken()))
+        .verifyComplete();
+    verify(userCacheInvalidator).evict(USERNAME);
+  }
+
+  @Test
+  @DisplayName("register - username duplicado se traduce a UsernameAlreadyExistsException")
+  void register_DuplicateUsername_Fails() {
+    // Arrange
+    UserDTO request = UserDTO.builder().username(USERNAME).password(PASSWORD).build();
+    User user = User.builder().username(USERNAME).build();
+    when(userMapper.toEntity(request)).thenReturn(user);
+    when(passwordEncoder.encodeAsync(PASSWORD)).thenReturn(completedFuture(ENCODED));
+    when(userRepository.insert(user)).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+
+    // Act & Assert
+    StepVerifier.create(authService.register(request))
+        .expectError(UsernameAlreadyExistsException.class)
+        .verify();
+    verify(jwtService, never()).generateToken(any());
+  }
+
+  @Test
+  @DisplayName("authenticate - credenciales válidas devuelven el token")
+  void authenticate_ValidCredentials_ReturnsToken() {
+    // Arrange
+    User user = User.builder().username(USERNAME).password(ENCODED).active(true).roles(Set.of(Role.USER)).build();
+    when(userDetailsService.loadUser(USERNAME)).thenReturn(Mono.just(user));
+    when(passwordEncoder.matchesAsync(PASSWORD, ENCODED)).thenReturn(completedFuture(true));
+    when(passwordEncoder.upgradeEncoding(ENCODED)).thenReturn(false);
+    when(jwtService.generateToken(user)).thenReturn(TOKEN);
+
+    // Act & Assert
+    StepVerifier.create(authService.authenticate(AUTH_REQUEST))
+        .expectNextMatches(response -> TOKEN.equals(response.getToken()))
+        .verifyComplete();
+    verify(loginRateLimiter).acquireForUsername(USERNAME);
+  }
+
+  @Test
+  @DisplayName("authenticate - password incorrecto falla sin hashear el dummy")
+  void authenticate_WrongPassword_FailsWithoutDummyHash() {
+    // Arrange
+    User user = User.builder().username(USERNAME).password(ENCODED).active(true).build();
+    when(userDetailsService.loadUser(USERNAME)).thenReturn(Mono.just(user));
+    when(passwordEncoder.matchesAsync(PASSWORD, ENCODED)).thenReturn(completedFuture(false));
+
+    // Act & Assert
+    StepVerifier.create(authService.authenticate(AUTH_REQUEST))
+        .expectError(BadCredentialsException.class)
+        .verify();
+    verify(passwordEncoder, never()).encodeAsync(any());
+  }
+
+  @Test
+  @DisplayName("authenticate - usuario inexistente compara contra el hash dummy y falla")
+  void authenticate_UnknownUser_MatchesDummyHashAndFails() {
+    // Arrange
+    when(userDetailsService.loadUser(USERNAME)).thenReturn(Mono.empty());
+    when(passwordEncoder.encodeAsync(any())).thenReturn(completedFuture("{bcrypt}dummy"));
+    when(passwordEncoder.matchesAsync(PASSWORD, "{bcrypt}dummy")).thenReturn(completedFuture(false));
+
+    // Act & Assert
+    StepVerifier.create(authService.authenticate(AUTH_REQUEST))
+        .expectError(BadCredentialsException.class)
+        .verify();
+    verify(passwordEncoder).matchesAsync(PASSWORD, "{bcrypt}dummy");
+  }
+
+  @Test
+  @DisplayName("authenticate - si el hash dummy fue rechazado por el pool, el siguiente login lo reintenta")
+  void authenticate_UnknownUser_DummyHashRejected_IsNotCached() {
+    // Arrange
+    when(userDetailsService.loadUser(USERNAME)).thenReturn(Mono.empty());
+    when(passwordEncoder.encodeAsync(any()))
+        .thenReturn(CompletableFuture.failedFuture(new PasswordHashingBusyException("Password hashing queue is full", 1)))
+        .thenReturn(completedFuture("{bcrypt}dummy"));
+    when(passwordEncoder.matchesAsync(PASSWORD, "{bcrypt}dummy")).thenReturn(completedFuture(false));
+
+    // Act & Assert
+    StepVerifier.create(authService.authenticate(AUTH_REQUEST))
+        .expectError(PasswordHashingBusyException.class)
+        .verify();
+    StepVerifier.create(authService.authenticate(AUTH_REQUEST))
+        .expectError(BadCredentialsException.class)
+        .verify();
+    verify(passwordEncoder, times(2)).encodeAsync(any());
+  }
+
+  @Test
+  @DisplayName("authenticate - usuario inactivo compara el password igual y falla")
+  void authenticate_InactiveUser_StillHashesAndFails() {
+    // Arrange
+    User user = User.builder().username(USERNAME).password(ENCODED).active(false).build();
+    when(userDetailsService.loadUser(USERNAME)).thenReturn(Mono.just(user));
+    when(passwordEncoder.matchesAsync(PASSWORD, ENCODED)).thenReturn(completedFuture(true));
+
+    // Act & Assert
+    StepVerifier.create(authService.authenticate(AUTH_REQUEST))
+        .expectError(BadCredentialsException.class)
+        .verify();
+    verify(passwordEncoder).matchesAsync(PASSWORD, ENCODED);
+    verify(jwtService, never()).generateToken(any());
+  }
+}
@@ -0,0 +1,142 @@
+package com.alkemy.java2.clase15.services;
+
+import com.alkemy.java2.clase15.authsecurity.ReactiveJwtAuthFilter;
+import com.alkemy.java2.clase15.authsecurity.dto.VerifiedToken;
+import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.ReactiveCustomUserDetailsService;
+import com.alkemy.java2.clase15.authsecurity.service.UserStatusService;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.ReactiveUserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveJwtAuthFilterTest {
+
+  private static final String USERNAME = "user@email.com";
+  private static final String TOKEN = "valid.jwt.token";
+
+  @Mock
+  private JwtService jwtService;
+  @Mock
+  private ReactiveCustomUserDetailsService userDetailsService;
+  @Mock
+  private UserStatusService userStatusService;
+  @Mock
+  private ReactiveUserRepository userRepository;
+
+  // Cadena que registra la autenticación visible en el contexto reactivo
+  private final AtomicReference<Authentication> seen = new AtomicReference<>();
+  private final WebFilterChain chain = exchange -> ReactiveSecurityContextHolder.getContext()
+      .map(SecurityContext::getAuthentication)
+      .doOnNext(seen::set)
+      .then();
+
+  @Test
+  @DisplayName("stateful - token válido deja la autenticación en el contexto")
+  void filter_Stateful_ValidToken_Authenticates() {
+    // Arrange
+    ReactiveJwtAuthFilter filter = filter(false);
+    User user = User.builder().username(USERNAME).password("x").active(true).roles(Set.of(Role.USER)).build();
+    when(jwtService.verify(TOKEN)).thenReturn(verified());
+    when(userDetailsService.loadUser(USERNAME)).thenReturn(Mono.just(user));
+
+    // Act
+    StepVerifier.create(filter.filter(exchangeWithToken(), chain)).verifyComplete();
+
+    // Assert
+    assertNotNull(seen.get());
+    assertEquals(USERNAME, seen.get().getName());
+  }
+
+  @Test
+  @DisplayName("token inválido responde 401 sin seguir la cadena")
+  void filter_InvalidToken_Returns401() {
+    // Arrange
+    ReactiveJwtAuthFilter filter = filter(false);
+    MockServerWebExchange exchange = exchangeWithToken();
+    when(jwtService.verify(TOKEN)).thenThrow(new IllegalArgumentException("bad token"));
+
+    // Act
+    StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+    // Assert
+    assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    assertNull(seen.get());
+  }
+
+  @Test
+  @DisplayName("stateless - usuario inactivo sigue sin autenticar y sin ir a la base")
+  void filter_Stateless_InactiveUser_ContinuesUnauthenticated() {
+    // Arrange
+    ReactiveJwtAuthFilter filter = filter(true);
+    when(jwtService.verify(TOKEN)).thenReturn(verified());
+    when(userStatusService.getIfPresent(USERNAME)).thenReturn(Optional.of(false));
+
+    // Act
+    StepVerifier.create(filter.filter(exchangeWithToken(), chain)).verifyComplete();
+
+    // Assert
+    assertNull(seen.get());
+    verifyNoInteractions(userRepository, userDetailsService);
+  }
+
+  @Test
+  @DisplayName("stateless - miss de estado consulta la proyección y la cachea")
+  void filter_Stateless_StatusMiss_LoadsAndCaches() {
+    // Arrange
+    ReactiveJwtAuthFilter filter = filter(true);
+    when(jwtService.verify(TOKEN)).thenReturn(verified());
+    when(userStatusService.getIfPresent(USERNAME)).thenReturn(Optional.empty());
+    when(userRepository.findStatusByUsername(USERNAME))
+        .thenReturn(Mono.just(User.builder().username(USERNAME).active(true).build()));
+
+    // Act
+    StepVerifier.create(filter.filter(exchangeWithToken(), chain)).verifyComplete();
+
+    // Assert
+    assertEquals(USERNAME, seen.get().getName());
+    assertTrue(seen.get().getAuthorities().stream().anyMatch(a -> "ROLE_USER".equals(a.getAuthority())));
+    verify(userStatusService).put(USERNAME, true);
+  }
+
+  private ReactiveJwtAuthFilter filter(boolean stateless) {
+    return new ReactiveJwtAuthFilter(jwtService, userDetailsService, userStatusService, userRepository, stateless);
+  }
+
+  private static VerifiedToken verified() {
+    return VerifiedToken.builder()
+        .subject(USERNAME)
+        .roles(List.of("ROLE_USER"))
+        .expiresAt(Instant.now().plusSeconds(60))
+        .build();
+  }
+
+  private static MockServerWebExchange exchangeWithToken() {
+    return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/users")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN));
+  }
+}
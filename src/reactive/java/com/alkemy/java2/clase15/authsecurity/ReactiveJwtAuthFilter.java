@@ -0,0 +1,133 @@
+package com.alkemy.java2.clase15.authsecurity;
+
+import com.alkemy.java2.clase15.authsecurity.dto.VerifiedToken;
+import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.ReactiveCustomUserDetailsService;
+import com.alkemy.java2.clase15.authsecurity.service.UserStatusService;
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.ReactiveUserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Port de {@link JwtAuthFilter} a WebFlux: mismo token, mismos modos (stateful / stateless) y las
+ * mismas caches, pero los misses se resuelven con el repositorio reactivo sin bloquear el event loop.
+ * No es un bean: lo instancia ReactiveSecurityConfig para que corra solo dentro de la cadena de seguridad.
+ */
+@Slf4j
+public class ReactiveJwtAuthFilter implements WebFilter {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private static final Set<String> WHITELISTED_PATHS = Set.of(
+      "/swagger-ui", "/v3/api-docs", "/api-docs", "/favicon.ico"
+  );
+
+  private final JwtService jwtService;
+  private final ReactiveCustomUserDetailsService userDetailsService;
+  private final UserStatusService userStatusService;
+  private final ReactiveUserRepository userRepository;
+  private final boolean stateless;
+
+  public ReactiveJwtAuthFilter(JwtService jwtService,
+                               ReactiveCustomUserDetailsService userDetailsService,
+                               UserStatusService userStatusService,
+                               ReactiveUserRepository userRepository,
+                               boolean stateless) {
+    this.jwtService = jwtService;
+    this.userDetailsService = userDetailsService;
+    this.userStatusService = userStatusService;
+    this.userRepository = userRepository;
+    this.stateless = stateless;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    String path = exchange.getRequest().getPath().pathWithinApplication().value();
+    String token = extractToken(exchange);
+    if (token == null || WHITELISTED_PATHS.stream().anyMatch(path::startsWith)) {
+      return chain.filter(exchange);
+    }
+
+    VerifiedToken verified;
+    try {
+      verified = jwtService.verify(token);
+    } catch (Exception e) {
+      log.warn("JWT authentication failed: {}", e.getMessage());
+      log.debug("JWT authentication failure", e);
+      return unauthorized(exchange.getResponse());
+    }
+    String username = verified.getSubject();
+    if (username == null) {
+      return chain.filter(exchange);
+    }
+
+    Mono<Optional<UserDetails>> principal = stateless
+        ? principalFromClaims(verified)
+        : userDetailsService.loadUser(username)
+            .<Optional<UserDetails>>map(Optional::of)
+            // Como loadUserByUsername en el filtro servlet: usuario inexistente con token válido es 401
+            .switchIfEmpty(Mono.error(() -> new IllegalStateException("User not found with username: " + username)));
+
+    return principal
+        .flatMap(user -> user.filter(details -> username.equals(details.getUsername()))
+            .map(details -> chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()))))
+            .orElseGet(() -> chain.filter(exchange)))
+        .onErrorResume(IllegalStateException.class, e -> {
+          log.warn("JWT authentication failed: {}", e.getMessage());
+          return unauthorized(exchange.getResponse());
+        });
+  }
+
+  // Vacío (request sin autenticar) si el usuario fue desactivado o borrado
+  private Mono<Optional<UserDetails>> principalFromClaims(VerifiedToken verified) {
+    String username = verified.getSubject();
+    Mono<Boolean> active = userStatusService.getIfPresent(username)
+        .map(Mono::just)
+        .orElseGet(() -> userRepository.findStatusByUsername(username)
+            .map(User::isActive)
+            .defaultIfEmpty(false)
+            .doOnNext(status -> userStatusService.put(username, status)));
+    return active.map(isActive -> {
+      if (!isActive) {
+        log.warn("Token de usuario inactivo o inexistente: {}", username);
+        return Optional.empty();
+      }
+      return Optional.of(org.springframework.security.core.userdetails.User.withUsername(username)
+          .password("")
+          .authorities(verified.getAuthorities())
+          .build());
+    });
+  }
+
+  private static String extractToken(ServerWebExchange exchange) {
+    String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    return (authHeader != null && authHeader.startsWith(BEARER_PREFIX))
+        ? authHeader.substring(BEARER_PREFIX.length())
+        : null;
+  }
+
+  private static Mono<Void> unauthorized(ServerHttpResponse response) {
+    if (response.isCommitted()) {
+      return Mono.empty();
+    }
+    response.setStatusCode(HttpStatus.UNAUTHORIZED);
+    DataBuffer body = response.bufferFactory().wrap("Authentication failed".getBytes(StandardCharsets.UTF_8));
+    return response.writeWith(Mono.just(body));
+  }
+}
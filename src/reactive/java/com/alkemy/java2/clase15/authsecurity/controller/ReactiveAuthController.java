@@ -0,0 +1,50 @@
+package com.alkemy.java2.clase15.authsecurity.controller;
+
+import com.alkemy.java2.clase15.authsecurity.dto.AuthRequest;
+import com.alkemy.java2.clase15.authsecurity.dto.AuthResponse;
+import com.alkemy.java2.clase15.authsecurity.service.LoginRateLimiter;
+import com.alkemy.java2.clase15.authsecurity.service.ReactiveAuthService;
+import com.alkemy.java2.clase15.dto.UserDTO;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthController {
+
+  private final ReactiveAuthService authService;
+  private final LoginRateLimiter loginRateLimiter;
+
+  @PostMapping("/register")
+  public Mono<ResponseEntity<AuthResponse>> register(@Valid @RequestBody UserDTO request) {
+    return authService.register(request).map(ResponseEntity::ok);
+  }
+
+  @PostMapping("/login")
+  public Mono<ResponseEntity<AuthResponse>> login(@Valid @RequestBody AuthRequest request,
+                                                  ServerHttpRequest httpRequest) {
+    // Límite por IP; el límite por username lo aplica el servicio antes de verificar el password
+    loginRateLimiter.acquireForClient(clientIp(httpRequest.getRemoteAddress()));
+    return authService.authenticate(request).map(ResponseEntity::ok);
+  }
+
+  // Mismo valor que HttpServletRequest#getRemoteAddr: la IP, sin resolver nombres
+  private static String clientIp(InetSocketAddress remote) {
+    if (remote == null) {
+      return null;
+    }
+    return remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+  }
+}
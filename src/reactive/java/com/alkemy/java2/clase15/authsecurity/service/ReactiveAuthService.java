@@ -0,0 +1,123 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import com.alkemy.java2.clase15.authsecurity.dto.AuthRequest;
+import com.alkemy.java2.clase15.authsecurity.dto.AuthResponse;
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.exception.UsernameAlreadyExistsException;
+import com.alkemy.java2.clase15.mapper.UserMapper;
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.ReactiveUserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Registro y login sin bloquear el event loop. Los hashes corren en el pool acotado de
+ * {@link PasswordHashingExecutor} vía {@link BoundedPasswordEncoder#encodeAsync}/{@code matchesAsync}:
+ * ningún thread queda esperando a BCrypt y con la cola llena se responde 503 como en el stack servlet.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthService {
+
+  // Hash contra el que se compara cuando el usuario no existe, como hace DaoAuthenticationProvider,
+  // para que el tiempo de respuesta no revele qué usernames existen
+  private static final String USER_NOT_FOUND_PASSWORD = "userNotFoundPassword";
+
+  private final ReactiveUserRepository userRepository;
+  private final ReactiveCustomUserDetailsService userDetailsService;
+  private final UserMapper userMapper;
+  private final BoundedPasswordEncoder passwordEncoder;
+  private final JwtService jwtService;
+  private final UserCacheInvalidator userCacheInvalidator;
+  private final LoginRateLimiter loginRateLimiter;
+  private final Mono<String> userNotFoundHash;
+
+  public ReactiveAuthService(ReactiveUserRepository userRepository,
+                             ReactiveCustomUserDetailsService userDetailsService,
+                             UserMapper userMapper,
+                             BoundedPasswordEncoder passwordEncoder,
+                             JwtService jwtService,
+                             UserCacheInvalidator userCacheInvalidator,
+                             LoginRateLimiter loginRateLimiter) {
+    this.userRepository = userRepository;
+    this.userDetailsService = userDetailsService;
+    this.userMapper = userMapper;
+    this.passwordEncoder = passwordEncoder;
+    this.jwtService = jwtService;
+    this.userCacheInvalidator = userCacheInvalidator;
+    this.loginRateLimiter = loginRateLimiter;
+    // Solo se cachea el hash: si el pool rechaza el primer intento (503) el siguiente login lo reintenta
+    this.userNotFoundHash = Mono.defer(() -> Mono.fromFuture(passwordEncoder.encodeAsync(USER_NOT_FOUND_PASSWORD)))
+        .cache(hash -> Duration.ofMillis(Long.MAX_VALUE), e -> Duration.ZERO, () -> Duration.ZERO);
+  }
+
+  public Mono<AuthResponse> register(UserDTO request) {
+    log.debug("Intentando registrar nuevo usuario: {}", request.getUsername());
+    return Mono.fromCallable(() -> userMapper.toEntity(request))
+        .flatMap(user -> Mono.fromFuture(() -> passwordEncoder.encodeAsync(request.getPassword()))
+            .map(hash -> {
+              user.setPassword(hash);
+              return user;
+            }))
+        .flatMap(userRepository::insert)
+        .onErrorMap(DuplicateKeyException.class, e -> {
+          log.warn("Username {} already exists", request.getUsername());
+          return new UsernameAlreadyExistsException(e);
+        })
+        .map(saved -> {
+          userCacheInvalidator.evict(saved.getUsername());
+          log.info("Nuevo usuario registrado con ID: {}", saved.getId());
+          return AuthResponse.builder().token(jwtService.generateToken(saved)).build();
+        });
+  }
+
+  public Mono<AuthResponse> authenticate(AuthRequest request) {
+    log.debug("Autenticando usuario: {}", request.getUsername());
+    return Mono.fromRunnable(() -> loginRateLimiter.acquireForUsername(request.getUsername()))
+        .then(userDetailsService.loadUser(request.getUsername())
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty()))
+        .flatMap(found -> found
+            .map(user -> checkPassword(user, request.getPassword()))
+            .orElseGet(() -> userNotFoundHash
+                .flatMap(hash -> Mono.fromFuture(() -> passwordEncoder.matchesAsync(request.getPassword(), hash)))
+                .then(Mono.empty())))
+        .switchIfEmpty(Mono.error(() -> {
+          log.warn("Falló autenticación para usuario: {}", request.getUsername());
+          return new BadCredentialsException("Invalid credentials");
+        }))
+        .map(user -> {
+          log.info("Usuario {} autenticado exitosamente", user.getUsername());
+          return AuthResponse.builder().token(jwtService.generateToken(user)).build();
+        });
+  }
+
+  // Vacío si el usuario está inactivo o el password no coincide; re-hashea si el hash quedó desactualizado.
+  // Un usuario inactivo también paga la comparación, así el tiempo de respuesta no revela su estado.
+  private Mono<User> checkPassword(User user, String rawPassword) {
+    if (!user.isEnabled()) {
+      return Mono.fromFuture(() -> passwordEncoder.matchesAsync(rawPassword, user.getPassword()))
+          .then(Mono.empty());
+    }
+    return Mono.fromFuture(() -> passwordEncoder.matchesAsync(rawPassword, user.getPassword()))
+        .flatMap(matches -> {
+          if (!matches) {
+            return Mono.empty();
+          }
+          if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return Mono.just(user);
+          }
+          return Mono.fromFuture(() -> passwordEncoder.encodeAsync(rawPassword))
+              .flatMap(hash -> userDetailsService.updatePassword(user, hash))
+              .thenReturn(user);
+        });
+  }
+}
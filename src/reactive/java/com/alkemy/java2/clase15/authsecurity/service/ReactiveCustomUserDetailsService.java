@@ -0,0 +1,53 @@
+package com.alkemy.java2.clase15.authsecurity.service;
+
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.ReactiveUserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Contraparte reactiva de {@link CustomUserDetailsService}: misma proyección de credenciales y
+ * misma {@link UserPrincipalCache}, así las invalidaciones valen para los dos stacks.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomUserDetailsService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
+
+  private final ReactiveUserRepository userRepository;
+  private final UserPrincipalCache userPrincipalCache;
+  private final UserCacheInvalidator userCacheInvalidator;
+
+  @Override
+  public Mono<UserDetails> findByUsername(String username) {
+    return loadUser(username).cast(UserDetails.class);
+  }
+
+  // Vacío si el usuario no existe; los inexistentes no se cachean
+  public Mono<User> loadUser(String username) {
+    return userPrincipalCache.getIfPresent(username)
+        .map(Mono::just)
+        .orElseGet(() -> userRepository.findCredentialsByUsername(username)
+            .doOnNext(user -> userPrincipalCache.put(username, user)));
+  }
+
+  @Override
+  public Mono<UserDetails> updatePassword(UserDetails user, String newPassword) {
+    log.info("Re-hasheando password con parámetros actuales para: {}", user.getUsername());
+    return userRepository.updatePasswordByUsername(user.getUsername(), newPassword)
+        .doOnNext(updated -> userCacheInvalidator.evict(user.getUsername()))
+        .then(Mono.fromSupplier(() -> {
+          if (user instanceof User entity) {
+            entity.setPassword(newPassword);
+          }
+          return user;
+        }));
+  }
+}
@@ -0,0 +1,87 @@
+package com.alkemy.java2.clase15.config;
+
+import com.alkemy.java2.clase15.authsecurity.ReactiveJwtAuthFilter;
+import com.alkemy.java2.clase15.authsecurity.service.BoundedPasswordEncoder;
+import com.alkemy.java2.clase15.authsecurity.service.CalibratedPasswordEncoderFactory;
+import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.ReactiveCustomUserDetailsService;
+import com.alkemy.java2.clase15.authsecurity.service.UserStatusService;
+import com.alkemy.java2.clase15.repository.ReactiveUserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+import java.util.List;
+
+/**
+ * Equivalente WebFlux de {@link SecurityConfig}: mismas rutas públicas, sin sesión y con el
+ * filtro JWT en la posición de autenticación. Un request sin autenticar recibe 403 como en MVC.
+ */
+@Slf4j
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+  private static final String[] WHITE_LIST = {
+      "/api/v1/auth/**", "/api/v1/test/**",
+      "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html"
+  };
+
+  @Bean
+  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                       JwtService jwtService,
+                                                       ReactiveCustomUserDetailsService userDetailsService,
+                                                       UserStatusService userStatusService,
+                                                       ReactiveUserRepository userRepository,
+                                                       @Value("${app.jwt.stateless:false}") boolean stateless) {
+    log.info("🛡️ Configurando seguridad reactiva");
+    ReactiveJwtAuthFilter jwtAuthFilter = new ReactiveJwtAuthFilter(jwtService, userDetailsService,
+        userStatusService, userRepository, stateless);
+
+    return http
+        .csrf(ServerHttpSecurity.CsrfSpec::disable)
+        .cors(cors -> cors.configurationSource(corsConfig()))
+        .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+        .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+        .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+        .exceptionHandling(handling -> handling
+            .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+        .authorizeExchange(auth -> auth
+            .pathMatchers(WHITE_LIST).permitAll()
+            .anyExchange().authenticated())
+        .addFilterAt(jwtAuthFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+        .build();
+  }
+
+  @Bean
+  public CorsConfigurationSource corsConfig() {
+    CorsConfiguration config = new CorsConfiguration();
+    config.setAllowedOrigins(List.of("http://localhost:8080", "http://localhost:9080", "https://localhost:9443", "http://localhost:3000"));
+    config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+    config.setAllowedHeaders(List.of("*"));
+    config.setAllowCredentials(true);
+
+    var source = new UrlBasedCorsConfigurationSource();
+    source.registerCorsConfiguration("/**", config);
+    return source;
+  }
+
+  // Mismo encoder calibrado que en MVC; el stack reactivo usa sus variantes async sobre el pool acotado
+  @Bean
+  public BoundedPasswordEncoder passwordEncoder(CalibratedPasswordEncoderFactory passwordEncoderFactory) {
+    return passwordEncoderFactory.create();
+  }
+}
@@ -0,0 +1,65 @@
+package com.alkemy.java2.clase15.controller;
+
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.service.ReactiveUserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Versión WebFlux de las operaciones principales de {@link UserController}: mismas rutas, códigos
+ * y headers. Bulk, export, batch, búsqueda y PATCH siguen solo en el stack servlet.
+ */
+@RestController
+@RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+  private final ReactiveUserService userService;
+
+  @GetMapping
+  public Mono<ResponseEntity<List<UserDTO>>> obtenerTodas(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(defaultValue = "id") String sort,
+      @RequestParam(required = false) String fields) {
+    return userService.getUsers(cursor, limit, sort, fields)
+        .map(pagina -> {
+          ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+          if (pagina.getNextCursor() != null) {
+            response.header(UserController.NEXT_CURSOR_HEADER, pagina.getNextCursor());
+          }
+          return response.body(pagina.getItems());
+        });
+  }
+
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<UserDTO>> obtenerPorId(@PathVariable String id) {
+    // Igual que en MVC: con ETag en un GET, WebFlux compara If-None-Match y responde 304
+    return userService.getUserById(id)
+        .map(usuario -> ResponseEntity.ok().eTag(usuario.getEtag()).body(usuario.getUser()))
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @PostMapping
+  public Mono<ResponseEntity<UserDTO>> crear(@RequestBody UserDTO user) {
+    return userService.createUser(user)
+        .map(creado -> ResponseEntity.status(HttpStatus.CREATED).body(creado));
+  }
+
+  @PutMapping("/{id}")
+  public Mono<ResponseEntity<UserDTO>> actualizar(@PathVariable String id, @RequestBody UserDTO userDTO) {
+    return userService.updateUser(id, userDTO).map(ResponseEntity::ok);
+  }
+
+  @DeleteMapping("/{id}")
+  public Mono<ResponseEntity<Void>> eliminar(@PathVariable String id) {
+    return userService.deleteUser(id).then(Mono.just(ResponseEntity.noContent().build()));
+  }
+}
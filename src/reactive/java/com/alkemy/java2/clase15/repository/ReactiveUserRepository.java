@@ -0,0 +1,23 @@
+package com.alkemy.java2.clase15.repository;
+
+import com.alkemy.java2.clase15.model.User;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+// Contraparte no bloqueante de UserRepository, con las mismas proyecciones
+@Repository
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String>, ReactiveUserRepositoryCustom {
+
+  @Query(value = "{ 'username': ?0 }", fields = "{ 'username': 1, 'password': 1, 'roles': 1, 'roleMask': 1, 'active': 1 }")
+  Mono<User> findCredentialsByUsername(String username);
+
+  @Query(value = "{ 'username': ?0 }", fields = "{ 'active': 1 }")
+  Mono<User> findStatusByUsername(String username);
+
+  @Query("{ 'username': ?0 }")
+  @Update("{ '$set': { 'password': ?1 } }")
+  Mono<Long> updatePasswordByUsername(String username, String encodedPassword);
+}
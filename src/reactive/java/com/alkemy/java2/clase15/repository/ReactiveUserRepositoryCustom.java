@@ -0,0 +1,17 @@
+package com.alkemy.java2.clase15.repository;
+
+import com.alkemy.java2.clase15.enums.UserSort;
+import com.alkemy.java2.clase15.model.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReactiveUserRepositoryCustom {
+
+  // Mismo keyset que UserRepositoryCustom#findPage
+  Flux<User> findPage(UserSort sort, String afterValue, String afterId, int limit, Collection<String> fields);
+
+  // Borra por _id en una sola operación y devuelve solo el username del documento borrado
+  Mono<User> deleteAndGetUsername(String id);
+}
@@ -0,0 +1,32 @@
+package com.alkemy.java2.clase15.repository;
+
+import com.alkemy.java2.clase15.enums.UserSort;
+import com.alkemy.java2.clase15.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class ReactiveUserRepositoryCustomImpl implements ReactiveUserRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Override
+  public Flux<User> findPage(UserSort sort, String afterValue, String afterId, int limit,
+                             Collection<String> fields) {
+    return mongoTemplate.find(UserRepositoryCustomImpl.pageQuery(sort, afterValue, afterId, limit, fields),
+        User.class);
+  }
+
+  @Override
+  public Mono<User> deleteAndGetUsername(String id) {
+    Query query = Query.query(Criteria.where("_id").is(id));
+    query.fields().include("username");
+    return mongoTemplate.findAndRemove(query, User.class);
+  }
+}
@@ -0,0 +1,28 @@
+package com.alkemy.java2.clase15.repository;
+
+import com.alkemy.java2.clase15.model.User;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeSaveCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// ReactiveMongoTemplate solo invoca callbacks reactivos: delega en el mismo formato de roles que el stack servlet
+@Component
+@RequiredArgsConstructor
+public class ReactiveUserRoleStorageCallbacks implements ReactiveBeforeSaveCallback<User>, ReactiveAfterConvertCallback<User> {
+
+  private final UserRoleStorage userRoleStorage;
+
+  @Override
+  public Publisher<User> onBeforeSave(User user, Document document, String collection) {
+    return Mono.just(userRoleStorage.onBeforeSave(user, document, collection));
+  }
+
+  @Override
+  public Publisher<User> onAfterConvert(User user, Document document, String collection) {
+    return Mono.just(userRoleStorage.onAfterConvert(user, document, collection));
+  }
+}
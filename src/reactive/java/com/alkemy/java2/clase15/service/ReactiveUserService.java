@@ -0,0 +1,16 @@
+package com.alkemy.java2.clase15.service;
+
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.UserPage;
+import com.alkemy.java2.clase15.dto.VersionedUser;
+import reactor.core.publisher.Mono;
+
+// Misma semántica que UserService para el stack reactivo (listado, por id, alta, update y baja)
+public interface ReactiveUserService {
+  Mono<UserPage> getUsers(String cursor, Integer limit, String sort, String fields);
+  // Vacío si el usuario no existe
+  Mono<VersionedUser> getUserById(String id);
+  Mono<UserDTO> createUser(UserDTO user);
+  Mono<UserDTO> updateUser(String id, UserDTO user);
+  Mono<Void> deleteUser(String id);
+}
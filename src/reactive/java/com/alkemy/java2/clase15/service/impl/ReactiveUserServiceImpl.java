@@ -0,0 +1,105 @@
+package com.alkemy.java2.clase15.service.impl;
+
+import com.alkemy.java2.clase15.authsecurity.service.UserCacheInvalidator;
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.UserPage;
+import com.alkemy.java2.clase15.dto.VersionedUser;
+import com.alkemy.java2.clase15.enums.UserSort;
+import com.alkemy.java2.clase15.exception.UserNotFoundException;
+import com.alkemy.java2.clase15.exception.UsernameAlreadyExistsException;
+import com.alkemy.java2.clase15.mapper.UserMapper;
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.ReactiveUserRepository;
+import com.alkemy.java2.clase15.service.ReactiveUserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+  private final ReactiveUserRepository userRepository;
+  private final UserMapper userMapper;
+  private final UserCacheInvalidator userCacheInvalidator;
+  private final UserByIdCache userByIdCache;
+
+  @Value("${app.users.page.default-size:50}")
+  private int defaultPageSize;
+
+  @Value("${app.users.page.max-size:200}")
+  private int maxPageSize;
+
+  @Override
+  public Mono<UserPage> getUsers(String cursor, Integer limit, String sort, String fields) {
+    return Mono.defer(() -> {
+      Set<String> selected = UserFields.parse(fields);
+      UserSort userSort = UserSort.fromParam(sort == null ? UserSort.ID.getParam() : sort);
+      int pageSize = Math.min(limit == null ? defaultPageSize : Math.max(1, limit), maxPageSize);
+      UserCursor after = cursor == null ? null : UserCursor.decode(cursor, userSort);
+      return userRepository.findPage(userSort,
+              after == null ? null : after.lastValue(),
+              after == null ? null : after.lastId(),
+              pageSize + 1,
+              selected)
+          .collectList()
+          .map(users -> UserServiceImpl.toPage(users, pageSize, userSort, selected, userMapper));
+    });
+  }
+
+  @Override
+  public Mono<VersionedUser> getUserById(String id) {
+    return userByIdCache.getIfPresent(id)
+        .map(Mono::just)
+        .orElseGet(() -> userRepository.findById(id)
+            .map(user -> userByIdCache.put(id, userMapper.toDTO(user))));
+  }
+
+  @Override
+  public Mono<UserDTO> createUser(UserDTO userDTO) {
+    return Mono.fromCallable(() -> userMapper.toEntity(userDTO))
+        .flatMap(userRepository::insert)
+        .onErrorMap(DuplicateKeyException.class, UsernameAlreadyExistsException::new)
+        .doOnNext(saved -> userCacheInvalidator.evict(saved.getUsername()))
+        .map(userMapper::toDTO);
+  }
+
+  @Override
+  public Mono<UserDTO> updateUser(String id, UserDTO userDTO) {
+    return userRepository.findById(id)
+        .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+        .flatMap(existing -> {
+          String previousUsername = existing.getUsername();
+          existing.setName(userDTO.getName());
+          existing.setUsername(userDTO.getUsername());
+          existing.setPassword(userDTO.getPassword());
+          existing.setVersion(existing.getVersion() == null ? 1 : existing.getVersion() + 1);
+          return userRepository.save(existing)
+              .onErrorMap(DuplicateKeyException.class, UsernameAlreadyExistsException::new)
+              .doOnNext(updated -> {
+                userCacheInvalidator.evict(previousUsername, updated.getUsername());
+                userCacheInvalidator.evictById(id);
+              });
+        })
+        .map(userMapper::toDTO);
+  }
+
+  @Override
+  public Mono<Void> deleteUser(String id) {
+    return userRepository.deleteAndGetUsername(id)
+        .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+        .doOnNext(deleted -> {
+          userCacheInvalidator.evict(deleted.getUsername());
+          userCacheInvalidator.evictById(id);
+        })
+        .then();
+  }
+}
@@ -1,6 +1,9 @@
 package com.alkemy.java2.clase15.config;
 
 import com.alkemy.java2.clase15.authsecurity.JwtAuthFilter;
+import com.alkemy.java2.clase15.authsecurity.service.CalibratedPasswordEncoderFactory;
+import com.alkemy.java2.clase15.authsecurity.service.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,13 +27,16 @@ class SecurityConfigTest {
 
   private final JwtAuthFilter jwtAuthFilter = mock(JwtAuthFilter.class);
   private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
-  private final SecurityConfig securityConfig = new SecurityConfig(jwtAuthFilter, userDetailsService);
+  private final CalibratedPasswordEncoderFactory passwordEncoderFactory = new CalibratedPasswordEncoderFactory(
+      new PasswordHashingExecutor(1, 4, 5_000, 1, new SimpleMeterRegistry()), "bcrypt", 1, 4, 310_000);
+  private final SecurityConfig securityConfig =
+      new SecurityConfig(jwtAuthFilter, userDetailsService, passwordEncoderFactory);
 
   @Test
   @DisplayName("Constructor lanza excepción si JwtAuthFilter es nulo")
   void constructor_ThrowsException_WhenJwtAuthFilterIsNull() {
     // Assert
-    NullPointerException ex = assertThrows(NullPointerException.class, () -> new SecurityConfig(null, userDetailsService));
+    NullPointerException ex = assertThrows(NullPointerException.class, () -> new SecurityConfig(null, userDetailsService, passwordEncoderFactory));
     assertEquals("JwtAuthFilter is required", ex.getMessage());
   }
 
@@ -38,10 +44,18 @@ class SecurityConfigTest {
   @DisplayName("Constructor lanza excepción si UserDetailsService es nulo")
   void constructor_ThrowsException_WhenUserDetailsServiceIsNull() {
     // Assert
-    NullPointerException ex = assertThrows(NullPointerException.class, () -> new SecurityConfig(jwtAuthFilter, null));
+    NullPointerException ex = assertThrows(NullPointerException.class, () -> new SecurityConfig(jwtAuthFilter, null, passwordEncoderFactory));
     assertEquals("UserDetailsService is required", ex.getMessage());
   }
 
+  @Test
+  @DisplayName("Constructor lanza excepción si PasswordEncoderFactory es nulo")
+  void constructor_ThrowsException_WhenPasswordEncoderFactoryIsNull() {
+    // Assert
+    NullPointerException ex = assertThrows(NullPointerException.class, () -> new SecurityConfig(jwtAuthFilter, userDetailsService, null));
+    assertEquals("PasswordEncoderFactory is required", ex.getMessage());
+  }
+
   @Test
   @DisplayName("securityFilterChain retorna DefaultSecurityFilterChain correctamente")
   void securityFilterChain_ReturnsDefaultSecurityFilterChain() throws Exception {
@@ -112,6 +126,7 @@ class SecurityConfigTest {
     assertNotNull(cors);
     assertTrue(cors.getAllowedOrigins().contains("http://localhost:3000"));
     assertTrue(cors.getAllowedMethods().contains("POST"));
+    assertTrue(cors.getAllowedMethods().contains("PATCH"));
     assertTrue(cors.getAllowedHeaders().contains("*"));
     assertTrue(Boolean.TRUE.equals(cors.getAllowCredentials()));
   }
@@ -0,0 +1,168 @@
+package com.alkemy.java2.clase15.config;
+
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.UserRoleStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIndexManagerTest {
+
+  private static final Set<String> DECLARED = Set.of("username", "name_id", "active_name_id", "roles_name_id",
+      "roles_active_name_id", "roleMask_name_id", "roleMask_active_name_id");
+
+  @Mock private MongoTemplate mongoTemplate;
+  @Mock private MongoConverter converter;
+  @Mock private IndexOperations indexOperations;
+
+  private UserIndexManager indexManager;
+
+  @BeforeEach
+  void setUp() {
+    when(mongoTemplate.getConverter()).thenReturn(converter);
+    doReturn(new MongoMappingContext()).when(converter).getMappingContext();
+    indexManager = new UserIndexManager(mongoTemplate, new UserRoleStorage(true), 24, new SimpleMeterRegistry());
+  }
+
+  @Test
+  @DisplayName("requiredIndexes - se resuelven desde las anotaciones de User")
+  void requiredIndexes_ResolvedFromAnnotations() {
+    // Act
+    List<IndexDefinition> indexes = indexManager.requiredIndexes();
+
+    // Assert
+    assertEquals(DECLARED, indexes.stream()
+        .map(index -> String.valueOf(index.getIndexOptions().get("name")))
+        .collect(Collectors.toSet()));
+    IndexDefinition username = indexes.stream()
+        .filter(index -> "username".equals(index.getIndexOptions().get("name")))
+        .findFirst().orElseThrow();
+    assertEquals(Boolean.TRUE, username.getIndexOptions().get("unique"));
+  }
+
+  @Test
+  @DisplayName("requiredIndexes - sin roles compactos no se exigen los índices de roleMask")
+  void requiredIndexes_CompactRolesOff_SkipsRoleMaskIndexes() {
+    // Arrange
+    UserIndexManager manager = new UserIndexManager(mongoTemplate, new UserRoleStorage(false), 24,
+        new SimpleMeterRegistry());
+
+    // Act
+    Set<String> names = manager.requiredIndexes().stream()
+        .map(index -> String.valueOf(index.getIndexOptions().get("name")))
+        .collect(Collectors.toSet());
+
+    // Assert
+    assertEquals(Set.of("username", "name_id", "active_name_id", "roles_name_id", "roles_active_name_id"), names);
+  }
+
+  @Test
+  @DisplayName("ensureIndexes - un índice que falla no corta la creación del resto")
+  void ensureIndexes_FailureIsLoggedAndSkipped() {
+    // Arrange
+    when(mongoTemplate.indexOps(User.class)).thenReturn(indexOperations);
+    when(indexOperations.ensureIndex(any(IndexDefinition.class)))
+        .thenThrow(new IllegalStateException("timeout"))
+        .thenReturn("ok");
+
+    // Act
+    indexManager.ensureIndexes();
+
+    // Assert
+    verify(indexOperations, times(DECLARED.size())).ensureIndex(any(IndexDefinition.class));
+  }
+
+  @Test
+  @DisplayName("verify - informa índices faltantes, sin uso y consultas que hacen collection scan")
+  void verify_ReportsMissingUnusedAndCollectionScans() {
+    // Arrange
+    when(mongoTemplate.indexOps(User.class)).thenReturn(indexOperations);
+    when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id_"), index("name_id"),
+        index("active_name_id"), index("roles_name_id"), index("roles_active_name_id"),
+        index("roleMask_name_id"), index("roleMask_active_name_id")));
+    when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+    when(mongoTemplate.executeCommand(any(Document.class))).thenAnswer(inv -> {
+      Document find = inv.getArgument(0, Document.class).get("explain", Document.class);
+      Document plan = find.containsKey("sort")
+          ? new Document("stage", "FETCH").append("inputStage", new Document("stage", "IXSCAN").append("indexName", "name_id"))
+          : new Document("stage", "COLLSCAN");
+      return new Document("queryPlanner", new Document("winningPlan", plan));
+    });
+    Date old = Date.from(Instant.now().minus(3, ChronoUnit.DAYS));
+    List<Document> stats = List.of(
+        stat("name_id", 120, old),
+        stat("active_name_id", 0, old),
+        stat("roles_name_id", 0, new Date()));
+    when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class)))
+        .thenReturn(new AggregationResults<>(stats, new Document()));
+
+    // Act
+    UserIndexManager.IndexReport report = indexManager.verify();
+
+    // Assert
+    assertEquals(Set.of("username"), report.missing());
+    // roles_name_id tiene estadísticas recientes: todavía no se puede decir que no se usa
+    assertEquals(Set.of("active_name_id"), report.unused());
+    assertEquals(List.of("findByUsername -> COLLSCAN"), report.unindexedQueries());
+    assertFalse(report.healthy());
+  }
+
+  @Test
+  @DisplayName("verify - índices sin uso se informan pero no afectan el estado")
+  void verify_UnusedIndexesDoNotMakeReportUnhealthy() {
+    // Arrange
+    when(mongoTemplate.indexOps(User.class)).thenReturn(indexOperations);
+    when(indexOperations.getIndexInfo()).thenReturn(DECLARED.stream().map(UserIndexManagerTest::index).toList());
+    when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+    when(mongoTemplate.executeCommand(any(Document.class))).thenAnswer(inv -> {
+      Document find = inv.getArgument(0, Document.class).get("explain", Document.class);
+      String indexName = find.containsKey("sort") ? "name_id" : "username";
+      return new Document("queryPlanner", new Document("winningPlan",
+          new Document("stage", "IXSCAN").append("indexName", indexName)));
+    });
+    Date old = Date.from(Instant.now().minus(3, ChronoUnit.DAYS));
+    when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class)))
+        .thenReturn(new AggregationResults<>(List.of(stat("roleMask_name_id", 0, old)), new Document()));
+
+    // Act
+    UserIndexManager.IndexReport report = indexManager.verify();
+
+    // Assert
+    assertEquals(Set.of("roleMask_name_id"), report.unused());
+    assertTrue(report.healthy());
+  }
+
+  private static IndexInfo index(String name) {
+    return new IndexInfo(List.of(), name, false, false, "");
+  }
+
+  private static Document stat(String name, long ops, Date since) {
+    return new Document("name", name).append("accesses", new Document("ops", ops).append("since", since));
+  }
+}
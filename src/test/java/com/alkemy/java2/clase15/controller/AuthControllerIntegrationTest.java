@@ -118,7 +118,7 @@ class AuthControllerIntegrationTest {
   }
 
   @Test
-  void registerUser_shouldReturnBadRequest_whenUsernameAlreadyExists() throws Exception {
+  void registerUser_shouldReturnConflict_whenUsernameAlreadyExists() throws Exception {
     // Arrange - First register a user
     UserDTO initialUser = UserDTO.builder()
         .name("Existing User")
@@ -143,6 +143,7 @@ class AuthControllerIntegrationTest {
     mockMvc.perform(post("/api/v1/auth/register")
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(duplicateUser)))
-        .andExpect(status().isBadRequest());
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message").value("Username already exists"));
   }
 }
\ No newline at end of file
@@ -4,7 +4,9 @@ import com.alkemy.java2.clase15.authsecurity.controller.AuthController;
 import com.alkemy.java2.clase15.authsecurity.dto.AuthRequest;
 import com.alkemy.java2.clase15.authsecurity.dto.AuthResponse;
 import com.alkemy.java2.clase15.authsecurity.service.AuthService;
+import com.alkemy.java2.clase15.authsecurity.service.LoginRateLimiter;
 import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.exception.LoginThrottledException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,6 +25,11 @@ class AuthControllerTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    private final MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+
     @InjectMocks
     private AuthController authController;
 
@@ -109,7 +117,7 @@ class AuthControllerTest {
         when(authService.authenticate(authRequest)).thenReturn(expected);
 
         // Act
-        ResponseEntity<AuthResponse> response = authController.login(authRequest);
+        ResponseEntity<AuthResponse> response = authController.login(authRequest, httpRequest);
 
         // Assert
         assertNotNull(response);
@@ -130,7 +138,7 @@ class AuthControllerTest {
         when(authService.authenticate(authRequest)).thenReturn(null);
 
         // Act
-        ResponseEntity<AuthResponse> response = authController.login(authRequest);
+        ResponseEntity<AuthResponse> response = authController.login(authRequest, httpRequest);
 
         // Assert
         assertNotNull(response);
@@ -149,7 +157,7 @@ class AuthControllerTest {
         when(authService.authenticate(authRequest)).thenThrow(new IllegalArgumentException("Credenciales inválidas"));
 
         // Act & Assert
-        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> authController.login(authRequest));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> authController.login(authRequest, httpRequest));
         assertTrue(ex.getMessage().contains("Credenciales inválidas"));
         verify(authService).authenticate(authRequest);
     }
@@ -161,9 +169,28 @@ class AuthControllerTest {
         when(authService.authenticate(null)).thenThrow(new IllegalArgumentException("Request nulo"));
 
         // Act & Assert
-        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> authController.login(null));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> authController.login(null, httpRequest));
         assertNotNull(ex);
         assertEquals("Request nulo", ex.getMessage());
         verify(authService).authenticate(null);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("login - IP limitada no llega al servicio")
+    void login_ThrowsThrottled_WhenClientIsLimited() {
+        // Arrange
+        AuthRequest authRequest = AuthRequest.builder()
+            .username("maria@email.com")
+            .password("password789")
+            .build();
+        httpRequest.setRemoteAddr("10.0.0.1");
+        doThrow(new LoginThrottledException("Too many login attempts", 12))
+            .when(loginRateLimiter).acquireForClient("10.0.0.1");
+
+        // Act & Assert
+        LoginThrottledException ex = assertThrows(LoginThrottledException.class,
+            () -> authController.login(authRequest, httpRequest));
+        assertEquals(12, ex.getRetryAfterSeconds());
+        verifyNoInteractions(authService);
+    }
+}
@@ -0,0 +1,62 @@
+package com.alkemy.java2.clase15.controller;
+
+import com.alkemy.java2.clase15.service.UserBulkService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserBulkSecurityTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private UserBulkService userBulkService;
+
+  @Test
+  @WithMockUser(roles = "USER")
+  @DisplayName("bulk - un usuario sin rol ADMIN recibe 403 y no se procesa nada")
+  void bulk_NonAdmin_Forbidden() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/api/v1/users/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(patch("/api/v1/users/bulk").contentType(MediaType.APPLICATION_JSON).content("{}"))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(post("/api/v1/users/bulk/delete").contentType(MediaType.APPLICATION_JSON).content("{}"))
+        .andExpect(status().isForbidden());
+    verifyNoInteractions(userBulkService);
+  }
+
+  @Test
+  @WithMockUser(roles = "ADMIN")
+  @DisplayName("bulk - un ADMIN puede usar los endpoints masivos")
+  void bulk_Admin_Allowed() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/api/v1/users/bulk/delete").contentType(MediaType.APPLICATION_JSON).content("{}"))
+        .andExpect(status().isOk());
+    verify(userBulkService).deleteAll(any());
+  }
+
+  @Test
+  @DisplayName("bulk - sin autenticar se rechaza")
+  void bulk_Anonymous_Rejected() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/api/v1/users/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+        .andExpect(status().is4xxClientError());
+    verifyNoInteractions(userBulkService);
+  }
+}
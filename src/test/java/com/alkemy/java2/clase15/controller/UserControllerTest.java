@@ -0,0 +1,101 @@
+package com.alkemy.java2.clase15.controller;
+
+import com.alkemy.java2.clase15.dto.UserBatchItem;
+import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.VersionedUser;
+import com.alkemy.java2.clase15.service.UserBulkService;
+import com.alkemy.java2.clase15.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserControllerTest {
+
+  private static final VersionedUser USER = new VersionedUser(
+      UserDTO.builder().id("1").name("Ana").username("ana@email.com").build(), "abc123");
+
+  @Mock
+  private UserService userService;
+
+  @Mock
+  private UserBulkService userBulkService;
+
+  @InjectMocks
+  private UserController userController;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
+  }
+
+  @Test
+  @DisplayName("obtenerPorId - devuelve el usuario con ETag")
+  void obtenerPorId_ReturnsUserWithEtag() throws Exception {
+    // Arrange
+    when(userService.getUserById("1")).thenReturn(Optional.of(USER));
+
+    // Act & Assert
+    mockMvc.perform(get("/api/v1/users/1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+        .andExpect(jsonPath("$.username").value("ana@email.com"))
+        .andExpect(jsonPath("$.password").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("obtenerPorId - If-None-Match con el mismo ETag responde 304 sin body")
+  void obtenerPorId_MatchingEtag_ReturnsNotModified() throws Exception {
+    // Arrange
+    when(userService.getUserById("1")).thenReturn(Optional.of(USER));
+
+    // Act & Assert
+    mockMvc.perform(get("/api/v1/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"abc123\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  @DisplayName("obtenerPorId - usuario inexistente responde 404")
+  void obtenerPorId_NotFound() throws Exception {
+    // Arrange
+    when(userService.getUserById("2")).thenReturn(Optional.empty());
+
+    // Act & Assert
+    mockMvc.perform(get("/api/v1/users/2"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("obtenerPorIds - devuelve los resultados en el orden pedido con los faltantes explícitos")
+  void obtenerPorIds_ReturnsItemsInRequestOrder() throws Exception {
+    // Arrange
+    when(userService.getUsersByIds(List.of("9", "1"))).thenReturn(List.of(
+        UserBatchItem.builder().id("9").found(false).build(),
+        UserBatchItem.builder().id("1").found(true).user(USER.getUser()).build()));
+
+    // Act & Assert
+    mockMvc.perform(get("/api/v1/users/batch").param("ids", "9,1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value("9"))
+        .andExpect(jsonPath("$[0].found").value(false))
+        .andExpect(jsonPath("$[0].user").doesNotExist())
+        .andExpect(jsonPath("$[1].user.username").value("ana@email.com"));
+  }
+}
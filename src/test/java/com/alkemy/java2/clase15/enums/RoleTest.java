@@ -0,0 +1,57 @@
+package com.alkemy.java2.clase15.enums;
+
+import com.alkemy.java2.clase15.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleTest {
+
+  @Test
+  @DisplayName("getAuthorities - la misma combinación de roles devuelve la misma colección")
+  void getAuthorities_SameRoles_ReturnsSharedCollection() {
+    // Arrange
+    User first = User.builder().roles(new HashSet<>(Set.of(Role.USER, Role.ADMIN))).build();
+    User second = User.builder().roles(EnumSet.of(Role.ADMIN, Role.USER)).build();
+
+    // Act & Assert
+    assertSame(first.getAuthorities(), second.getAuthorities());
+    assertSame(first.getAuthorities(), first.getAuthorities());
+    assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), names(first.getAuthorities()));
+  }
+
+  @Test
+  @DisplayName("getAuthorities - la colección es inmutable y sin roles queda vacía")
+  void getAuthorities_IsImmutable() {
+    // Arrange
+    User user = User.builder().roles(Set.of(Role.USER)).build();
+
+    // Act & Assert
+    assertThrows(UnsupportedOperationException.class,
+        () -> Role.authoritiesOf(Role.USER.mask()).add(Role.ADMIN.grantedAuthority()));
+    assertSame(Role.USER.grantedAuthority(), user.getAuthorities().iterator().next());
+    assertTrue(User.builder().build().getAuthorities().isEmpty());
+  }
+
+  @Test
+  @DisplayName("authoritiesOfNames - nombres de claims conocidos usan la colección compartida")
+  void authoritiesOfNames_KnownRoles_ReturnsSharedCollection() {
+    // Act & Assert
+    assertSame(Role.authoritiesOf(EnumSet.of(Role.ADMIN)), Role.authoritiesOfNames(List.of("ROLE_ADMIN")));
+    assertEquals(Set.of("ROLE_OTRO"), names(Role.authoritiesOfNames(List.of("ROLE_OTRO"))));
+  }
+
+  private static Set<String> names(Collection<? extends GrantedAuthority> authorities) {
+    Set<String> names = new HashSet<>();
+    authorities.forEach(authority -> names.add(authority.getAuthority()));
+    return names;
+  }
+}
@@ -0,0 +1,153 @@
+package com.alkemy.java2.clase15.repository;
+
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.enums.UserSort;
+import com.alkemy.java2.clase15.exception.SearchIndexUnavailableException;
+import com.alkemy.java2.clase15.model.User;
+import com.mongodb.MongoQueryException;
+import com.mongodb.ServerAddress;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserRepositoryCustomImplTest {
+
+  @Mock
+  private MongoTemplate mongoTemplate;
+
+  @Mock
+  private IndexOperations indexOperations;
+
+  private UserRepositoryCustomImpl repository;
+
+  @BeforeEach
+  void setUp() {
+    repository = new UserRepositoryCustomImpl(mongoTemplate, new UserRoleStorage(false));
+  }
+
+  @Test
+  @DisplayName("search - usa el índice de la combinación de filtros y lo verifica una sola vez")
+  void search_RoleAndActive_HintsCompoundIndex() {
+    // Arrange
+    when(mongoTemplate.indexOps(User.class)).thenReturn(indexOperations);
+    when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id_"), index("roles_active_name_id")));
+    when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of());
+
+    // Act
+    repository.search(Role.ADMIN, true, "Ana", null, null, 10, Set.of("username"));
+    repository.search(Role.USER, false, null, "Ana", "1", 10, Set.of("username"));
+
+    // Assert
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate, times(2)).find(query.capture(), eq(User.class));
+    assertEquals("roles_active_name_id", query.getAllValues().get(0).getHint());
+    assertEquals(new Document("name", 1).append("_id", 1), query.getAllValues().get(0).getSortObject());
+    verify(indexOperations, times(1)).getIndexInfo();
+  }
+
+  @Test
+  @DisplayName("search - sin el índice necesario se rechaza en lugar de hacer un collection scan")
+  void search_MissingIndex_Throws() {
+    // Arrange
+    when(mongoTemplate.indexOps(User.class)).thenReturn(indexOperations);
+    when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id_"), index("name_id")));
+
+    // Act & Assert
+    assertThrows(SearchIndexUnavailableException.class,
+        () -> repository.search(null, true, null, null, null, 10, Set.of()));
+    verify(mongoTemplate, never()).find(any(Query.class), eq(User.class));
+  }
+
+  @Test
+  @DisplayName("search - si el índice se borró después de verificarlo responde índice no disponible y lo vuelve a buscar")
+  void search_IndexDroppedAfterCheck_ThrowsUnavailableAndRechecks() {
+    // Arrange
+    when(mongoTemplate.indexOps(User.class)).thenReturn(indexOperations);
+    when(indexOperations.getIndexInfo())
+        .thenReturn(List.of(index("_id_"), index("active_name_id")))
+        .thenReturn(List.of(index("_id_")));
+    when(mongoTemplate.find(any(Query.class), eq(User.class))).thenThrow(mongoError(2,
+        "error processing query: planner returned error :: caused by :: "
+            + "hint provided does not correspond to an existing index"));
+
+    // Act & Assert
+    assertThrows(SearchIndexUnavailableException.class,
+        () -> repository.search(null, true, null, null, null, 10, Set.of()));
+    assertThrows(SearchIndexUnavailableException.class,
+        () -> repository.search(null, true, null, null, null, 10, Set.of()));
+    verify(indexOperations, times(2)).getIndexInfo();
+    verify(mongoTemplate, times(1)).find(any(Query.class), eq(User.class));
+  }
+
+  @Test
+  @DisplayName("search - otros errores de Mongo no se confunden con un índice faltante")
+  void search_OtherMongoError_IsRethrown() {
+    // Arrange
+    when(mongoTemplate.indexOps(User.class)).thenReturn(indexOperations);
+    when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id_"), index("active_name_id")));
+    DataAccessException error = mongoError(2, "$in needs an array");
+    when(mongoTemplate.find(any(Query.class), eq(User.class))).thenThrow(error);
+
+    // Act & Assert
+    assertSame(error, assertThrows(DataAccessException.class,
+        () -> repository.search(null, true, null, null, null, 10, Set.of())));
+  }
+
+  @Test
+  @DisplayName("after - con el último valor null sigue con los null de _id mayor y después los no null")
+  void after_NullLastValue_ContinuesInsideNullsThenNonNulls() {
+    // Act
+    Document criteria = UserRepositoryCustomImpl.after(UserSort.NAME, null, "5").getCriteriaObject();
+
+    // Assert
+    Document expected = new Document("$or", List.of(
+        new Document("name", null).append("_id", new Document("$gt", "5")),
+        new Document("name", new Document("$ne", null))));
+    assertEquals(expected, criteria);
+  }
+
+  @Test
+  @DisplayName("prefixUpperBound - el rango cubre exactamente los names con el prefijo")
+  void prefixUpperBound_IncrementsLastChar() {
+    assertEquals("Juao", UserRepositoryCustomImpl.prefixUpperBound("Juan"));
+    assertEquals("b", UserRepositoryCustomImpl.prefixUpperBound("a" + Character.MAX_VALUE));
+    assertNull(UserRepositoryCustomImpl.prefixUpperBound(String.valueOf(Character.MAX_VALUE)));
+  }
+
+  // Mismo camino que en producción: la excepción del driver traducida por Spring Data
+  private static DataAccessException mongoError(int code, String message) {
+    BsonDocument response = new BsonDocument("ok", new BsonDouble(0))
+        .append("code", new BsonInt32(code))
+        .append("errmsg", new BsonString(message));
+    return new MongoExceptionTranslator().translateExceptionIfPossible(
+        new MongoQueryException(response, new ServerAddress()));
+  }
+
+  private static IndexInfo index(String name) {
+    return new IndexInfo(List.of(), name, false, false, "");
+  }
+}
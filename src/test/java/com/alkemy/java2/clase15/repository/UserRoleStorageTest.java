@@ -0,0 +1,88 @@
+package com.alkemy.java2.clase15.repository;
+
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.model.User;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserRoleStorageTest {
+
+  private final UserRoleStorage names = new UserRoleStorage(false);
+  private final UserRoleStorage compact = new UserRoleStorage(true);
+
+  @Test
+  @DisplayName("onBeforeSave - en modo compacto reemplaza el array de nombres por la máscara")
+  void onBeforeSave_Compact_WritesMask() {
+    // Arrange
+    User user = User.builder().username("a@b.com").roles(Set.of(Role.ADMIN)).build();
+    Document document = new Document("username", "a@b.com").append("roles", List.of("ADMIN"));
+
+    // Act
+    compact.onBeforeSave(user, document, "users");
+
+    // Assert
+    assertFalse(document.containsKey("roles"));
+    assertEquals(Role.ADMIN.mask(), document.get("roleMask"));
+  }
+
+  @Test
+  @DisplayName("onBeforeSave - en modo nombres no toca el documento")
+  void onBeforeSave_Names_KeepsArray() {
+    // Arrange
+    User user = User.builder().roles(Set.of(Role.USER)).build();
+    Document document = new Document("roles", List.of("USER"));
+
+    // Act
+    names.onBeforeSave(user, document, "users");
+
+    // Assert
+    assertEquals(new Document("roles", List.of("USER")), document);
+  }
+
+  @Test
+  @DisplayName("onAfterConvert - decodifica la máscara con cualquiera de los dos modos")
+  void onAfterConvert_MaskDocument_DecodesRoles() {
+    // Arrange
+    User user = User.builder().username("a@b.com").build();
+    Document document = new Document("username", "a@b.com").append("roleMask", 3);
+
+    // Act
+    names.onAfterConvert(user, document, "users");
+
+    // Assert
+    assertEquals(EnumSet.of(Role.USER, Role.ADMIN), user.getRoles());
+  }
+
+  @Test
+  @DisplayName("hasRole - en modo compacto busca el nombre o las máscaras que tienen el bit")
+  void hasRole_Compact_MatchesBothFormats() {
+    // Act
+    Document criteria = compact.hasRole(Role.ADMIN).getCriteriaObject();
+
+    // Assert
+    List<?> branches = (List<?>) criteria.get("$or");
+    assertEquals(new Document("roles", Role.ADMIN), branches.get(0));
+    assertEquals(new Document("roleMask", new Document("$exists", true).append("$in", List.of(2, 3))),
+        branches.get(1));
+    assertEquals(new Document("roles", Role.ADMIN), names.hasRole(Role.ADMIN).getCriteriaObject());
+  }
+
+  @Test
+  @DisplayName("setRoles - escribe el formato activo y borra el otro")
+  void setRoles_WritesActiveFormatAndUnsetsOther() {
+    // Act
+    Document update = compact.setRoles(new Update(), EnumSet.of(Role.USER)).getUpdateObject();
+
+    // Assert
+    assertEquals(new Document("roleMask", 1), update.get("$set"));
+    assertTrue(((Document) update.get("$unset")).containsKey("roles"));
+  }
+}
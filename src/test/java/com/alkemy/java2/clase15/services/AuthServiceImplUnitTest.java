@@ -4,8 +4,12 @@ import com.alkemy.java2.clase15.authsecurity.dto.AuthRequest;
 import com.alkemy.java2.clase15.authsecurity.dto.AuthResponse;
 import com.alkemy.java2.clase15.authsecurity.service.AuthServiceImpl;
 import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.LoginRateLimiter;
+import com.alkemy.java2.clase15.authsecurity.service.UserCacheInvalidator;
 import com.alkemy.java2.clase15.dto.UserDTO;
 import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.exception.LoginThrottledException;
+import com.alkemy.java2.clase15.exception.UsernameAlreadyExistsException;
 import com.alkemy.java2.clase15.mapper.UserMapper;
 import com.alkemy.java2.clase15.model.User;
 import com.alkemy.java2.clase15.repository.UserRepository;
@@ -15,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -24,7 +29,6 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Collections;
-import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -70,6 +74,8 @@ class AuthServiceImplUnitTest {
   @Mock private PasswordEncoder passwordEncoder;
   @Mock private JwtService jwtService;
   @Mock private AuthenticationManager authenticationManager;
+  @Mock private UserCacheInvalidator userCacheInvalidator;
+  @Mock private LoginRateLimiter loginRateLimiter;
 
   @InjectMocks
   private AuthServiceImpl authService;
@@ -77,27 +83,29 @@ class AuthServiceImplUnitTest {
   @Nested
   class RegisterTests {
     @Test
-    void shouldThrowRuntimeException_whenUserAlreadyExists() {
+    void shouldThrowUsernameAlreadyExists_whenInsertHitsUniqueIndex() {
       // Arrange
-      when(userRepository.existsUserByUsername(USERNAME)).thenReturn(true);
+      when(userMapper.toEntity(USER_DTO)).thenReturn(USER);
+      when(passwordEncoder.encode(PASSWORD)).thenReturn(ENCODED_PASSWORD);
+      when(userRepository.insert(USER)).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
 
       // Act
-      RuntimeException exception = assertThrows(RuntimeException.class,
+      UsernameAlreadyExistsException exception = assertThrows(UsernameAlreadyExistsException.class,
           () -> authService.register(USER_DTO));
 
       // Assert
       assertEquals(USER_ALREADY_EXISTS_MESSAGE, exception.getMessage());
-      verify(userRepository).existsUserByUsername(USERNAME);
-      verifyNoMoreInteractions(userMapper, passwordEncoder, userRepository, jwtService);
+      verify(userRepository).insert(USER);
+      verifyNoMoreInteractions(userRepository);
+      verifyNoInteractions(jwtService, userCacheInvalidator);
     }
 
     @Test
     void shouldReturnAuthResponse_whenUserDoesNotExist() {
       // Arrange
-      when(userRepository.existsUserByUsername(USERNAME)).thenReturn(false);
       when(userMapper.toEntity(USER_DTO)).thenReturn(USER);
       when(passwordEncoder.encode(PASSWORD)).thenReturn(ENCODED_PASSWORD);
-      when(userRepository.save(USER)).thenReturn(USER);
+      when(userRepository.insert(USER)).thenReturn(USER);
       when(jwtService.generateToken(USER)).thenReturn(JWT_TOKEN);
 
       // Act
@@ -108,10 +116,10 @@ class AuthServiceImplUnitTest {
           () -> assertNotNull(result),
           () -> assertEquals(JWT_TOKEN, result.getToken())
       );
-      verify(userRepository).existsUserByUsername(USERNAME);
       verify(userMapper).toEntity(USER_DTO);
       verify(passwordEncoder).encode(PASSWORD);
-      verify(userRepository).save(USER);
+      verify(userRepository).insert(USER);
+      verify(userCacheInvalidator).evict(USERNAME);
       verify(jwtService).generateToken(USER);
     }
 
@@ -130,10 +138,9 @@ class AuthServiceImplUnitTest {
           .roles(Set.of(Role.USER))
           .build();
 
-      when(userRepository.existsUserByUsername("newuser")).thenReturn(false);
       when(userMapper.toEntity(newUserDto)).thenReturn(newUser);
       when(passwordEncoder.encode("newpass123")).thenReturn("encodedNewPass123");
-      when(userRepository.save(newUser)).thenReturn(newUser);
+      when(userRepository.insert(newUser)).thenReturn(newUser);
       when(jwtService.generateToken(newUser)).thenReturn("new.jwt.token");
 
       // Act
@@ -145,7 +152,7 @@ class AuthServiceImplUnitTest {
           () -> assertEquals("new.jwt.token", result.getToken())
       );
       verify(passwordEncoder).encode("newpass123");
-      verify(userRepository).save(argThat(user ->
+      verify(userRepository).insert(argThat((User user) ->
           "encodedNewPass123".equals(user.getPassword())
       ));
     }
@@ -157,13 +164,12 @@ class AuthServiceImplUnitTest {
     void shouldReturnAuthResponse_whenCredentialsAreValid() {
       // Arrange
       Authentication auth = new UsernamePasswordAuthenticationToken(
-          USERNAME,
+          USER,
           PASSWORD,
           AUTHORITIES
       );
 
       when(authenticationManager.authenticate(any())).thenReturn(auth);
-      when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(USER));
       when(jwtService.generateToken(USER)).thenReturn(JWT_TOKEN);
 
       // Act
@@ -175,8 +181,9 @@ class AuthServiceImplUnitTest {
           () -> assertEquals(JWT_TOKEN, result.getToken())
       );
       verify(authenticationManager).authenticate(any());
-      verify(userRepository).findByUsername(USERNAME);
       verify(jwtService).generateToken(USER);
+      // El principal autenticado se reusa: no hay segunda lectura a Mongo
+      verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -195,6 +202,17 @@ class AuthServiceImplUnitTest {
       verifyNoInteractions(userRepository, jwtService);
     }
 
+    @Test
+    void shouldNotAuthenticate_whenUsernameIsThrottled() {
+      // Arrange
+      doThrow(new LoginThrottledException("Too many login attempts", 5))
+          .when(loginRateLimiter).acquireForUsername(USERNAME);
+
+      // Act & Assert
+      assertThrows(LoginThrottledException.class, () -> authService.authenticate(AUTH_REQUEST));
+      verifyNoInteractions(authenticationManager, userRepository, jwtService);
+    }
+
     @Test
     void shouldLogUserAuthorities_whenAuthenticationIsSuccessful() {
       // Arrange
@@ -206,7 +224,7 @@ class AuthServiceImplUnitTest {
           .build();
 
       Authentication auth = new UsernamePasswordAuthenticationToken(
-          "adminuser",
+          userWithRoles,
           "adminpass",
           Set.of(
               new SimpleGrantedAuthority("ROLE_ADMIN"),
@@ -215,7 +233,6 @@ class AuthServiceImplUnitTest {
       );
 
       when(authenticationManager.authenticate(any())).thenReturn(auth);
-      when(userRepository.findByUsername("adminuser")).thenReturn(Optional.of(userWithRoles));
       when(jwtService.generateToken(userWithRoles)).thenReturn("admin.jwt.token");
 
       // Act
@@ -232,7 +249,7 @@ class AuthServiceImplUnitTest {
           "adminuser".equals(authRequest.getPrincipal()) &&
               "adminpass".equals(authRequest.getCredentials())
       ));
-      verify(userRepository).findByUsername("adminuser");
+      verify(jwtService).generateToken(userWithRoles);
     }
   }
 }
\ No newline at end of file
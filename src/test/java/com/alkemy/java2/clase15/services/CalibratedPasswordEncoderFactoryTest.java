@@ -0,0 +1,137 @@
+package com.alkemy.java2.clase15.services;
+
+import com.alkemy.java2.clase15.authsecurity.service.CalibratedPasswordEncoderFactory;
+import com.alkemy.java2.clase15.authsecurity.service.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalibratedPasswordEncoderFactoryTest {
+
+  private static final String RAW = "clave12345";
+
+  private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 4, 10_000, 1, new SimpleMeterRegistry());
+
+  @AfterEach
+  void tearDown() {
+    executor.destroy();
+  }
+
+  @Test
+  @DisplayName("bcrypt - valida hashes viejos sin prefijo y pide re-hash")
+  void bcrypt_LegacyHash_MatchesAndNeedsUpgrade() {
+    // Arrange
+    PasswordEncoder encoder = factory("bcrypt").create();
+    String legacy = new BCryptPasswordEncoder(4).encode(RAW);
+
+    // Act & Assert
+    assertTrue(encoder.matches(RAW, legacy));
+    assertTrue(encoder.upgradeEncoding(legacy));
+  }
+
+  @Test
+  @DisplayName("bcrypt - un hash nuevo queda con prefijo y no necesita re-hash")
+  void bcrypt_NewHash_IsCurrent() {
+    // Arrange
+    PasswordEncoder encoder = factory("bcrypt").create();
+
+    // Act
+    String encoded = encoder.encode(RAW);
+
+    // Assert
+    assertTrue(encoded.startsWith("{bcrypt}"));
+    assertTrue(encoder.matches(RAW, encoded));
+    assertFalse(encoder.upgradeEncoding(encoded));
+  }
+
+  @Test
+  @DisplayName("pbkdf2 - cambia el algoritmo sin invalidar hashes bcrypt existentes")
+  void pbkdf2_SwitchAlgorithm_KeepsBcryptHashesValid() {
+    // Arrange
+    String bcryptHash = factory("bcrypt").create().encode(RAW);
+    PasswordEncoder encoder = factory("pbkdf2").create();
+
+    // Act
+    String encoded = encoder.encode(RAW);
+
+    // Assert
+    assertTrue(encoded.startsWith("{pbkdf2@1000}"));
+    assertTrue(encoder.matches(RAW, encoded));
+    assertTrue(encoder.matches(RAW, bcryptHash));
+    assertTrue(encoder.upgradeEncoding(bcryptHash));
+  }
+
+  @Test
+  @DisplayName("pbkdf2 - otra instancia, con otra calibración, valida el hash")
+  void pbkdf2_HashFromAnotherInstance_Matches() {
+    // Arrange
+    String encoded = factory("pbkdf2").create().encode(RAW);
+    PasswordEncoder restarted = new CalibratedPasswordEncoderFactory(executor, "pbkdf2", 200, 4, 1_000).create();
+
+    // Act & Assert
+    assertTrue(restarted.matches(RAW, encoded));
+    assertFalse(restarted.matches("otraClave123", encoded));
+    assertFalse(restarted.upgradeEncoding(encoded));
+  }
+
+  @Test
+  @DisplayName("pbkdf2 - un hash con otras iteraciones se valida con las suyas y pide re-hash")
+  void pbkdf2_HashWithOtherIterations_MatchesAndNeedsUpgrade() {
+    // Arrange
+    String encoded = factory("pbkdf2").create().encode(RAW);
+    PasswordEncoder encoder = new CalibratedPasswordEncoderFactory(executor, "pbkdf2", 1, 4, 2_000).create();
+
+    // Act & Assert
+    assertTrue(encoder.matches(RAW, encoded));
+    assertFalse(encoder.matches("otraClave123", encoded));
+    assertTrue(encoder.upgradeEncoding(encoded));
+    assertTrue(encoder.encode(RAW).startsWith("{pbkdf2@2000}"));
+  }
+
+  @Test
+  @DisplayName("pbkdf2 - al volver a bcrypt los hashes pbkdf2 se siguen validando y piden re-hash")
+  void bcrypt_AfterPbkdf2_KeepsPbkdf2HashesValid() {
+    // Arrange
+    String encoded = factory("pbkdf2").create().encode(RAW);
+    PasswordEncoder encoder = factory("bcrypt").create();
+
+    // Act & Assert
+    assertTrue(encoder.matches(RAW, encoded));
+    assertTrue(encoder.upgradeEncoding(encoded));
+  }
+
+  @Test
+  @DisplayName("pbkdf2 - los hashes {pbkdf2} sin costo se validan con el default de Spring Security")
+  void pbkdf2_LegacyHashWithoutIterations_Matches() {
+    // Arrange
+    String legacy = "{pbkdf2}" + Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode(RAW);
+    PasswordEncoder encoder = factory("pbkdf2").create();
+
+    // Act & Assert
+    assertTrue(encoder.matches(RAW, legacy));
+    assertTrue(encoder.upgradeEncoding(legacy));
+  }
+
+  @Test
+  @DisplayName("pbkdf2 - iteraciones no positivas fallan al iniciar")
+  void pbkdf2_NonPositiveIterations_Throws() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new CalibratedPasswordEncoderFactory(executor, "pbkdf2", 1, 4, 0));
+  }
+
+  @Test
+  @DisplayName("algoritmo desconocido - falla al iniciar")
+  void unknownAlgorithm_Throws() {
+    assertThrows(IllegalArgumentException.class, () -> factory("md5"));
+  }
+
+  private CalibratedPasswordEncoderFactory factory(String algorithm) {
+    return new CalibratedPasswordEncoderFactory(executor, algorithm, 1, 4, 1_000);
+  }
+}
@@ -0,0 +1,108 @@
+package com.alkemy.java2.clase15.services;
+
+import com.alkemy.java2.clase15.authsecurity.service.CustomUserDetailsService;
+import com.alkemy.java2.clase15.authsecurity.service.UserCacheInvalidator;
+import com.alkemy.java2.clase15.authsecurity.service.UserPrincipalCache;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+  private static final String USERNAME = "user@email.com";
+
+  private static final User USER = User.builder()
+      .id("1")
+      .username(USERNAME)
+      .password("encoded")
+      .roles(Set.of(Role.USER))
+      .build();
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private UserCacheInvalidator userCacheInvalidator;
+
+  private UserPrincipalCache userPrincipalCache;
+  private CustomUserDetailsService userDetailsService;
+
+  @BeforeEach
+  void setUp() {
+    userPrincipalCache = new UserPrincipalCache(60_000, 100, new SimpleMeterRegistry());
+    userDetailsService = new CustomUserDetailsService(userRepository, userPrincipalCache, userCacheInvalidator);
+  }
+
+  @Test
+  @DisplayName("loadUserByUsername - la segunda carga sale de la cache")
+  void loadUserByUsername_SecondCall_HitsCache() {
+    // Arrange
+    when(userRepository.findCredentialsByUsername(USERNAME)).thenReturn(Optional.of(USER));
+
+    // Act
+    UserDetails first = userDetailsService.loadUserByUsername(USERNAME);
+    UserDetails second = userDetailsService.loadUserByUsername(USERNAME);
+
+    // Assert
+    assertSame(first, second);
+    verify(userRepository, times(1)).findCredentialsByUsername(USERNAME);
+  }
+
+  @Test
+  @DisplayName("loadUserByUsername - después de evict vuelve a leer de la base")
+  void loadUserByUsername_AfterEvict_ReloadsUser() {
+    // Arrange
+    when(userRepository.findCredentialsByUsername(USERNAME)).thenReturn(Optional.of(USER));
+    userDetailsService.loadUserByUsername(USERNAME);
+
+    // Act
+    userPrincipalCache.evict(USERNAME);
+    userDetailsService.loadUserByUsername(USERNAME);
+
+    // Assert
+    verify(userRepository, times(2)).findCredentialsByUsername(USERNAME);
+  }
+
+  @Test
+  @DisplayName("loadUserByUsername - usuario inexistente no queda cacheado")
+  void loadUserByUsername_NotFound_IsNotCached() {
+    // Arrange
+    when(userRepository.findCredentialsByUsername(USERNAME)).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(USERNAME));
+    assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(USERNAME));
+    verify(userRepository, times(2)).findCredentialsByUsername(USERNAME);
+  }
+
+  @Test
+  @DisplayName("updatePassword - guarda el nuevo hash e invalida las caches")
+  void updatePassword_StoresNewHashAndEvicts() {
+    // Arrange
+    User user = User.builder().username(USERNAME).password("$2a$04$old").roles(Set.of(Role.USER)).build();
+
+    // Act
+    UserDetails updated = userDetailsService.updatePassword(user, "{bcrypt}$2a$12$new");
+
+    // Assert
+    assertEquals("{bcrypt}$2a$12$new", updated.getPassword());
+    verify(userRepository).updatePasswordByUsername(USERNAME, "{bcrypt}$2a$12$new");
+    verify(userCacheInvalidator).evict(USERNAME);
+  }
+}
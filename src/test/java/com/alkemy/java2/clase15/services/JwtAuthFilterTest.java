@@ -1,7 +1,9 @@
 package com.alkemy.java2.clase15.services;
 
 import com.alkemy.java2.clase15.authsecurity.JwtAuthFilter;
+import com.alkemy.java2.clase15.authsecurity.dto.VerifiedToken;
 import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.UserStatusService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -18,7 +20,9 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +35,8 @@ class JwtAuthFilterTest {
   @Mock
   private UserDetailsService userDetailsService;
   @Mock
+  private UserStatusService userStatusService;
+  @Mock
   private HttpServletRequest request;
   @Mock
   private HttpServletResponse response;
@@ -41,8 +47,9 @@ class JwtAuthFilterTest {
 
   // Subclase interna para exponer doFilterInternal como público
   static class TestableJwtAuthFilter extends JwtAuthFilter {
-    public TestableJwtAuthFilter(JwtService jwtService, UserDetailsService userDetailsService) {
-      super(jwtService, userDetailsService);
+    public TestableJwtAuthFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                                 UserStatusService userStatusService, boolean stateless) {
+      super(jwtService, userDetailsService, userStatusService, stateless);
     }
     @Override
     public void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -55,7 +62,7 @@ class JwtAuthFilterTest {
 
   @BeforeEach
   void setUp() {
-    jwtAuthFilter = new TestableJwtAuthFilter(jwtService, userDetailsService);
+    jwtAuthFilter = new TestableJwtAuthFilter(jwtService, userDetailsService, userStatusService, false);
   }
 
   @AfterEach
@@ -88,9 +95,8 @@ class JwtAuthFilterTest {
 
     when(request.getServletPath()).thenReturn("/api/secure");
     when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
-    when(jwtService.extractUsername(token)).thenReturn(username);
+    when(jwtService.verify(token)).thenReturn(verifiedToken(username));
     when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-    when(jwtService.isTokenValid(token, userDetails)).thenReturn(true);
 
     // Act
     jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -119,18 +125,17 @@ class JwtAuthFilterTest {
   }
 
   @Test
-  @DisplayName("No autentica si el token es inválido")
+  @DisplayName("No autentica si el usuario cargado no coincide con el token")
   void doFilterInternal_InvalidToken_DoesNotAuthenticate() throws Exception {
     // Arrange
     String token = "invalid.jwt.token";
     String username = "user@email.com";
-    UserDetails userDetails = new User(username, "pass", Collections.emptyList());
+    UserDetails userDetails = new User("otro@email.com", "pass", Collections.emptyList());
 
     when(request.getServletPath()).thenReturn("/api/secure");
     when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
-    when(jwtService.extractUsername(token)).thenReturn(username);
+    when(jwtService.verify(token)).thenReturn(verifiedToken(username));
     when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-    when(jwtService.isTokenValid(token, userDetails)).thenReturn(false);
 
     // Act
     jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -147,7 +152,7 @@ class JwtAuthFilterTest {
     String token = "bad.jwt.token";
     when(request.getServletPath()).thenReturn("/api/secure");
     when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
-    when(jwtService.extractUsername(token)).thenThrow(new RuntimeException("JWT error"));
+    when(jwtService.verify(token)).thenThrow(new RuntimeException("JWT error"));
     when(response.isCommitted()).thenReturn(false);
     when(response.getWriter()).thenReturn(printWriter);
 
@@ -169,7 +174,7 @@ class JwtAuthFilterTest {
     String token = "bad.jwt.token";
     when(request.getServletPath()).thenReturn("/api/secure");
     when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
-    when(jwtService.extractUsername(token)).thenThrow(new RuntimeException("JWT error"));
+    when(jwtService.verify(token)).thenThrow(new RuntimeException("JWT error"));
     when(response.isCommitted()).thenReturn(true);
 
     // Act
@@ -189,13 +194,69 @@ class JwtAuthFilterTest {
     String token = "token.without.username";
     when(request.getServletPath()).thenReturn("/api/secure");
     when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
-    when(jwtService.extractUsername(token)).thenReturn(null);
+    when(jwtService.verify(token)).thenReturn(verifiedToken(null));
 
     // Act
     jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
     // Assert
     assertNull(SecurityContextHolder.getContext().getAuthentication());
+    verifyNoInteractions(userDetailsService);
+    verify(filterChain).doFilter(request, response);
+  }
+
+  @Test
+  @DisplayName("Modo stateless: autentica con los roles del token sin cargar el usuario")
+  void doFilterInternal_Stateless_AuthenticatesFromClaims() throws Exception {
+    // Arrange
+    String token = "valid.jwt.token";
+    String username = "user@email.com";
+    jwtAuthFilter = new TestableJwtAuthFilter(jwtService, userDetailsService, userStatusService, true);
+
+    when(request.getServletPath()).thenReturn("/api/secure");
+    when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
+    when(jwtService.verify(token)).thenReturn(verifiedToken(username));
+    when(userStatusService.isActive(username)).thenReturn(true);
+
+    // Act
+    jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+    // Assert
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    assertNotNull(auth);
+    assertEquals(username, auth.getName());
+    assertTrue(auth.getAuthorities().stream().anyMatch(a -> "ROLE_USER".equals(a.getAuthority())));
+    verifyNoInteractions(userDetailsService);
     verify(filterChain).doFilter(request, response);
   }
+
+  @Test
+  @DisplayName("Modo stateless: no autentica si el usuario está inactivo")
+  void doFilterInternal_StatelessInactiveUser_DoesNotAuthenticate() throws Exception {
+    // Arrange
+    String token = "valid.jwt.token";
+    String username = "user@email.com";
+    jwtAuthFilter = new TestableJwtAuthFilter(jwtService, userDetailsService, userStatusService, true);
+
+    when(request.getServletPath()).thenReturn("/api/secure");
+    when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
+    when(jwtService.verify(token)).thenReturn(verifiedToken(username));
+    when(userStatusService.isActive(username)).thenReturn(false);
+
+    // Act
+    jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+    // Assert
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+    verifyNoInteractions(userDetailsService);
+    verify(filterChain).doFilter(request, response);
+  }
+
+  private static VerifiedToken verifiedToken(String subject) {
+    return VerifiedToken.builder()
+        .subject(subject)
+        .roles(List.of("ROLE_USER"))
+        .expiresAt(Instant.now().plusSeconds(60))
+        .build();
+  }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.alkemy.java2.clase15.services;
+
+import com.alkemy.java2.clase15.authsecurity.dto.VerifiedToken;
+import com.alkemy.java2.clase15.authsecurity.service.JwtService;
+import com.alkemy.java2.clase15.authsecurity.service.VerifiedTokenCache;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtServiceTest {
+
+  private static final String SECRET = "TuClaveSecretaMuySeguraYCompleja123CambiarEnProduccion";
+
+  private static final User USER = User.builder()
+      .username("user@email.com")
+      .password("encoded")
+      .roles(Set.of(Role.ADMIN))
+      .build();
+
+  private JwtService jwtService;
+
+  @BeforeEach
+  void setUp() {
+    jwtService = newJwtService(SECRET, 60_000L);
+  }
+
+  @Test
+  @DisplayName("verify - devuelve subject, roles y expiración del token")
+  void verify_ValidToken_ReturnsClaims() {
+    // Arrange
+    String token = jwtService.generateToken(USER);
+
+    // Act
+    VerifiedToken verified = jwtService.verify(token);
+
+    // Assert
+    assertEquals("user@email.com", verified.getSubject());
+    assertEquals(1, verified.getRoles().size());
+    assertEquals("ROLE_ADMIN", verified.getRoles().get(0));
+    assertSame(USER.getAuthorities(), verified.getAuthorities());
+    assertFalse(verified.isExpired(Instant.now()));
+  }
+
+  @Test
+  @DisplayName("verify - el mismo token se resuelve desde la cache")
+  void verify_SameToken_ReturnsCachedResult() {
+    // Arrange
+    String token = jwtService.generateToken(USER);
+
+    // Act
+    VerifiedToken first = jwtService.verify(token);
+    VerifiedToken second = jwtService.verify(token);
+
+    // Assert
+    assertSame(first, second);
+  }
+
+  @Test
+  @DisplayName("verify - rechaza token firmado con otra clave")
+  void verify_TokenWithOtherKey_Throws() {
+    // Arrange
+    JwtService other = newJwtService("T3RyYUNsYXZlU2VjcmV0YU11eVNlZ3VyYVBhcmFUZXN0czEyMzQ1Ng==", 60_000L);
+    String token = other.generateToken(USER);
+
+    // Act & Assert
+    assertThrows(JwtException.class, () -> jwtService.verify(token));
+  }
+
+  @Test
+  @DisplayName("verify - rechaza token vencido")
+  void verify_ExpiredToken_Throws() {
+    // Arrange
+    JwtService expired = newJwtService(SECRET, -1_000L);
+    String token = expired.generateToken(USER);
+
+    // Act & Assert
+    assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+  }
+
+  @Test
+  @DisplayName("verify - rechaza un token bien firmado pero sin exp")
+  void verify_TokenWithoutExpiration_Throws() {
+    // Arrange
+    String token = Jwts.builder()
+        .subject("user@email.com")
+        .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+        .compact();
+
+    // Act & Assert
+    assertThrows(MalformedJwtException.class, () -> jwtService.verify(token));
+  }
+
+  @Test
+  @DisplayName("verify - una verificación cacheada ya vencida se rechaza")
+  void verify_CachedButExpired_Throws() {
+    // Arrange
+    VerifiedTokenCache cache = mock(VerifiedTokenCache.class);
+    when(cache.get(any(), any())).thenReturn(VerifiedToken.builder()
+        .subject("user@email.com")
+        .roles(List.of("ROLE_USER"))
+        .expiresAt(Instant.now().minusSeconds(1))
+        .build());
+    JwtService service = new JwtService(cache);
+
+    // Act & Assert
+    assertThrows(JwtException.class, () -> service.verify("cached.jwt.token"));
+  }
+
+  @Test
+  @DisplayName("isTokenValid - compara el subject con el usuario")
+  void isTokenValid_ComparesSubject() {
+    // Arrange
+    String token = jwtService.generateToken(USER);
+    User other = User.builder().username("otro@email.com").roles(Set.of(Role.USER)).build();
+
+    // Act & Assert
+    assertTrue(jwtService.isTokenValid(token, USER));
+    assertFalse(jwtService.isTokenValid(token, other));
+    assertEquals("user@email.com", jwtService.extractUsername(token));
+  }
+
+  @Test
+  @DisplayName("generateToken - en modo compacto emite la máscara y verify devuelve los mismos roles")
+  void generateToken_CompactRoles_RoundTrip() {
+    // Arrange
+    JwtService compact = newJwtService(SECRET, 60_000L);
+    ReflectionTestUtils.setField(compact, "compactRoles", true);
+    User admin = User.builder().username("admin@email.com").roles(Set.of(Role.USER, Role.ADMIN)).build();
+
+    // Act
+    String token = compact.generateToken(admin);
+    VerifiedToken verified = jwtService.verify(token);
+
+    // Assert
+    assertEquals(3, (Integer) compact.extractClaim(token, claims -> claims.get("rm", Integer.class)));
+    assertNull(compact.extractClaim(token, claims -> claims.get("roles")));
+    assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), verified.getRoles());
+    assertSame(admin.getAuthorities(), verified.getAuthorities());
+    assertTrue(token.length() < jwtService.generateToken(admin).length());
+  }
+
+  private static JwtService newJwtService(String secret, long expirationMs) {
+    JwtService service = new JwtService(new VerifiedTokenCache(100, new SimpleMeterRegistry()));
+    ReflectionTestUtils.setField(service, "secretKey", secret);
+    ReflectionTestUtils.setField(service, "expirationMs", expirationMs);
+    ReflectionTestUtils.invokeMethod(service, "init");
+    return service;
+  }
+}
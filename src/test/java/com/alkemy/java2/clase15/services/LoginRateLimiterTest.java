@@ -0,0 +1,87 @@
+package com.alkemy.java2.clase15.services;
+
+import com.alkemy.java2.clase15.authsecurity.service.LoginRateLimiter;
+import com.alkemy.java2.clase15.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+  private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  // username: 3 intentos de ráfaga, 6 por minuto (uno cada 10s); ip: 10 de ráfaga
+  private final LoginRateLimiter limiter = newLimiter(3, 6, 10, 60);
+
+  @Test
+  @DisplayName("acquireForUsername - permite la ráfaga y después rechaza con Retry-After")
+  void acquireForUsername_AfterBurst_Throttles() {
+    // Arrange
+    for (int i = 0; i < 3; i++) {
+      limiter.acquireForUsername("user@email.com");
+    }
+
+    // Act
+    LoginThrottledException ex = assertThrows(LoginThrottledException.class,
+        () -> limiter.acquireForUsername("user@email.com"));
+
+    // Assert
+    assertEquals(10, ex.getRetryAfterSeconds());
+    assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("key", "username").counter().count());
+  }
+
+  @Test
+  @DisplayName("acquireForUsername - repone tokens con el tiempo")
+  void acquireForUsername_RefillsOverTime() {
+    // Arrange
+    for (int i = 0; i < 3; i++) {
+      limiter.acquireForUsername("user@email.com");
+    }
+
+    // Act
+    now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+    // Assert
+    assertDoesNotThrow(() -> limiter.acquireForUsername("user@email.com"));
+    assertThrows(LoginThrottledException.class, () -> limiter.acquireForUsername("user@email.com"));
+  }
+
+  @Test
+  @DisplayName("acquireForUsername - no distingue mayúsculas")
+  void acquireForUsername_IgnoresCase() {
+    limiter.acquireForUsername("User@Email.com");
+    limiter.acquireForUsername("USER@EMAIL.COM");
+    limiter.acquireForUsername("user@email.com");
+
+    assertThrows(LoginThrottledException.class, () -> limiter.acquireForUsername("user@EMAIL.com"));
+  }
+
+  @Test
+  @DisplayName("acquireForClient - cada IP tiene su propio bucket")
+  void acquireForClient_KeysAreIndependent() {
+    for (int i = 0; i < 10; i++) {
+      limiter.acquireForClient("10.0.0.1");
+    }
+
+    assertThrows(LoginThrottledException.class, () -> limiter.acquireForClient("10.0.0.1"));
+    assertDoesNotThrow(() -> limiter.acquireForClient("10.0.0.2"));
+  }
+
+  @Test
+  @DisplayName("constructor - rechaza una tasa por minuto o capacidad no positiva")
+  void constructor_NonPositiveRate_Fails() {
+    assertThrows(IllegalArgumentException.class, () -> newLimiter(3, 0, 10, 60));
+    assertThrows(IllegalArgumentException.class, () -> newLimiter(3, 6, 10, -1));
+    assertThrows(IllegalArgumentException.class, () -> newLimiter(0, 6, 10, 60));
+  }
+
+  private LoginRateLimiter newLimiter(int userCapacity, int userPerMinute, int ipCapacity, int ipPerMinute) {
+    return new LoginRateLimiter(userCapacity, userPerMinute, ipCapacity, ipPerMinute,
+        60_000, 1_000, meterRegistry, now::get);
+  }
+}
@@ -0,0 +1,96 @@
+package com.alkemy.java2.clase15.services;
+
+import com.alkemy.java2.clase15.service.impl.NonPinningCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NonPinningCacheTest {
+
+  private final NonPinningCache<String, String> cache = new NonPinningCache<>(Caffeine.newBuilder().maximumSize(100));
+
+  @Test
+  @DisplayName("get - el loader corre en el thread que pidió la clave")
+  void get_RunsLoaderOnCallerThread() {
+    // Act
+    Optional<String> value = cache.get("a", key -> Thread.currentThread().getName());
+
+    // Assert
+    assertEquals(Optional.of(Thread.currentThread().getName()), value);
+  }
+
+  @Test
+  @DisplayName("get - pedidos concurrentes de la misma clave cargan una sola vez")
+  void get_ConcurrentCallers_LoadOnce() throws Exception {
+    // Arrange
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Optional<String>> first = CompletableFuture.supplyAsync(() -> cache.get("a", key -> {
+      loads.incrementAndGet();
+      loading.countDown();
+      await(release);
+      return "valor";
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+    // Act
+    CompletableFuture<Optional<String>> second = CompletableFuture.supplyAsync(() -> cache.get("a", key -> {
+      loads.incrementAndGet();
+      return "otro";
+    }));
+    release.countDown();
+
+    // Assert
+    assertEquals(Optional.of("valor"), first.get(5, TimeUnit.SECONDS));
+    assertEquals(Optional.of("valor"), second.get(5, TimeUnit.SECONDS));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  @DisplayName("get - ni los null ni las excepciones quedan cacheados")
+  void get_NullAndExceptions_AreNotCached() {
+    // Act & Assert
+    assertEquals(Optional.empty(), cache.get("a", key -> null));
+    assertThrows(IllegalStateException.class, () -> cache.get("a", key -> {
+      throw new IllegalStateException("mongo caído");
+    }));
+    assertEquals(Optional.of("valor"), cache.get("a", key -> "valor"));
+  }
+
+  @Test
+  @DisplayName("getAll - carga solo las claves ausentes en una llamada")
+  void getAll_LoadsOnlyMissingKeys() {
+    // Arrange
+    cache.put("a", "A");
+
+    // Act
+    Map<String, String> values = cache.getAll(Set.of("a", "b"), missing -> {
+      assertEquals(Set.of("b"), missing);
+      return Map.of("b", "B");
+    });
+
+    // Assert
+    assertEquals(Map.of("a", "A", "b", "B"), values);
+    assertEquals(Optional.of("B"), cache.getIfPresent("b"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
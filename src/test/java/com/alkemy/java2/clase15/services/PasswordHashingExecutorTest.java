@@ -0,0 +1,97 @@
+package com.alkemy.java2.clase15.services;
+
+import com.alkemy.java2.clase15.authsecurity.service.PasswordHashingExecutor;
+import com.alkemy.java2.clase15.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 5_000, 3, meterRegistry);
+
+  @AfterEach
+  void tearDown() {
+    executor.destroy();
+  }
+
+  @Test
+  @DisplayName("execute - devuelve el resultado de la tarea")
+  void execute_ReturnsTaskResult() {
+    assertEquals("hash", executor.execute(() -> "hash"));
+  }
+
+  @Test
+  @DisplayName("execute - con la cola llena rechaza rápido con Retry-After")
+  void execute_QueueFull_RejectsWithRetryAfter() throws Exception {
+    // Arrange: un thread ocupado y la única posición de la cola tomada
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+      started.countDown();
+      release.await();
+      return "first";
+    }));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> "second"));
+    while (meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value() < 1) {
+      Thread.onSpinWait();
+    }
+
+    // Act
+    PasswordHashingBusyException ex = assertThrows(PasswordHashingBusyException.class,
+        () -> executor.execute(() -> "third"));
+
+    // Assert
+    assertEquals(3, ex.getRetryAfterSeconds());
+    assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+    release.countDown();
+    assertEquals("first", running.get(5, TimeUnit.SECONDS));
+    assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("submit - completa el future sin bloquear al llamador")
+  void submit_CompletesFutureOnPool() throws Exception {
+    // Act
+    CompletableFuture<String> future = executor.submit(() -> Thread.currentThread().getName());
+
+    // Assert
+    assertTrue(future.get(5, TimeUnit.SECONDS).startsWith("password-hash"));
+  }
+
+  @Test
+  @DisplayName("submit - con la cola llena el future falla con Retry-After")
+  void submit_QueueFull_CompletesExceptionally() throws Exception {
+    // Arrange
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    CompletableFuture<String> running = executor.submit(() -> {
+      started.countDown();
+      release.await();
+      return "first";
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    CompletableFuture<String> queued = executor.submit(() -> "second");
+
+    // Act
+    CompletableFuture<String> rejected = executor.submit(() -> "third");
+
+    // Assert
+    ExecutionException ex = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+    PasswordHashingBusyException busy = assertInstanceOf(PasswordHashingBusyException.class, ex.getCause());
+    assertEquals(3, busy.getRetryAfterSeconds());
+    release.countDown();
+    assertEquals("first", running.get(5, TimeUnit.SECONDS));
+    assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+  }
+}
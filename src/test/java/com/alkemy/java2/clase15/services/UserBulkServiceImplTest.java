@@ -0,0 +1,492 @@
+package com.alkemy.java2.clase15.services;
+
+import com.alkemy.java2.clase15.authsecurity.service.BoundedPasswordEncoder;
+import com.alkemy.java2.clase15.authsecurity.service.UserCacheInvalidator;
+import com.alkemy.java2.clase15.dto.BulkDeleteRequest;
+import com.alkemy.java2.clase15.dto.BulkRegistrationResponse;
+import com.alkemy.java2.clase15.dto.BulkUpdateRequest;
+import com.alkemy.java2.clase15.dto.BulkUserPatch;
+import com.alkemy.java2.clase15.dto.BulkUserResult;
+import com.alkemy.java2.clase15.dto.BulkUsersResponse;
+import com.alkemy.java2.clase15.dto.UserFilter;
+import com.alkemy.java2.clase15.exception.PasswordHashingBusyException;
+import com.alkemy.java2.clase15.mapper.UserMapper;
+import com.alkemy.java2.clase15.model.User;
+import com.alkemy.java2.clase15.repository.UserRoleStorage;
+import com.alkemy.java2.clase15.service.impl.UserBulkServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.validation.Validation;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBulkServiceImplTest {
+
+  @Mock private MongoTemplate mongoTemplate;
+  @Mock private BulkOperations bulkOperations;
+  @Mock private BoundedPasswordEncoder passwordEncoder;
+  @Mock private UserCacheInvalidator userCacheInvalidator;
+
+  private UserBulkServiceImpl bulkService;
+
+  @BeforeEach
+  void setUp() {
+    bulkService = new UserBulkServiceImpl(mongoTemplate, new UserMapper() {}, passwordEncoder,
+        userCacheInvalidator, new ObjectMapper(),
+        Validation.buildDefaultValidatorFactory().getValidator(), new UserRoleStorage(false), 2, 10, 1);
+  }
+
+  @Test
+  @DisplayName("registerAll - hashea, escribe por lotes y reporta cada usuario")
+  void registerAll_CreatesUsersInBatches() throws Exception {
+    // Arrange
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    when(passwordEncoder.encodeAsync(anyString())).thenAnswer(inv -> completedFuture("{bcrypt}" + inv.getArgument(0)));
+
+    // Act
+    BulkRegistrationResponse response = bulkService.registerAll(json(
+        user("a@email.com"), user("b@email.com"), user("c@email.com")));
+
+    // Assert
+    assertEquals(3, response.getTotal());
+    assertEquals(3, response.getCreated());
+    assertTrue(response.getResults().stream().allMatch(r -> r.getId() != null));
+    // batch-size=2: dos bulk writes
+    verify(bulkOperations, times(2)).execute();
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<User>> inserted = ArgumentCaptor.forClass(List.class);
+    verify(bulkOperations, times(2)).insert(inserted.capture());
+    assertEquals("{bcrypt}password123", inserted.getAllValues().get(0).get(0).getPassword());
+  }
+
+  @Test
+  @DisplayName("registerAll - un duplicado se informa como conflicto sin cortar el lote")
+  void registerAll_DuplicateUsername_ReportsConflict() throws Exception {
+    // Arrange
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    when(passwordEncoder.encodeAsync(anyString())).thenReturn(completedFuture("{bcrypt}hash"));
+    BulkOperationException duplicate = mock(BulkOperationException.class);
+    when(duplicate.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000", new BsonDocument(), 1)));
+    when(bulkOperations.execute()).thenThrow(duplicate);
+
+    // Act
+    BulkRegistrationResponse response = bulkService.registerAll(json(user("a@email.com"), user("a@email.com")));
+
+    // Assert
+    assertEquals(BulkUserResult.Status.CREATED, response.getResults().get(0).getStatus());
+    assertEquals(BulkUserResult.Status.CONFLICT, response.getResults().get(1).getStatus());
+    assertEquals(1, response.getConflicts());
+    verify(userCacheInvalidator).evict("a@email.com");
+  }
+
+  @Test
+  @DisplayName("registerAll - items inválidos no se hashean ni se escriben")
+  void registerAll_InvalidItems_AreRejected() throws Exception {
+    // Act
+    BulkRegistrationResponse response = bulkService.registerAll(json(
+        "{\"name\":\"Sin password\",\"username\":\"x@email.com\"}",
+        "{\"name\":\"Rol\",\"username\":\"y@email.com\",\"password\":\"password123\",\"roles\":[\"ROOT\"]}"));
+
+    // Assert
+    assertEquals(2, response.getRejected());
+    assertTrue(response.getResults().stream().allMatch(r -> r.getStatus() == BulkUserResult.Status.INVALID));
+    verifyNoInteractions(passwordEncoder, mongoTemplate);
+  }
+
+  @Test
+  @DisplayName("registerAll - procesa hasta el máximo permitido e indica que quedó truncado")
+  void registerAll_TooManyItems_Truncates() throws Exception {
+    // Arrange
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    when(passwordEncoder.encodeAsync(anyString())).thenReturn(completedFuture("{bcrypt}hash"));
+    String[] users = new String[11];
+    for (int i = 0; i < users.length; i++) {
+      users[i] = user("u" + i + "@email.com");
+    }
+
+    // Act
+    BulkRegistrationResponse response = bulkService.registerAll(json(users));
+
+    // Assert
+    assertEquals(10, response.getTotal());
+    assertTrue(response.isTruncated());
+  }
+
+  @Test
+  @DisplayName("registerAll - elementos que no son objetos o no se pueden leer quedan INVALID y se sigue")
+  void registerAll_NonObjectAndUnreadableItems_AreReportedPerItem() throws Exception {
+    // Arrange
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    when(passwordEncoder.encodeAsync(anyString())).thenReturn(completedFuture("{bcrypt}hash"));
+
+    // Act
+    BulkRegistrationResponse response = bulkService.registerAll(json(
+        user("a@email.com"), "42", "{\"username\":\"b@email.com\",\"roles\":\"USER\"}", "null",
+        user("c@email.com")));
+
+    // Assert
+    assertEquals(5, response.getTotal());
+    assertEquals(2, response.getCreated());
+    assertEquals(3, response.getRejected());
+    assertFalse(response.isTruncated());
+    assertEquals(BulkUserResult.Status.INVALID, response.getResults().get(1).getStatus());
+    assertEquals("b@email.com", response.getResults().get(2).getUsername());
+    assertEquals(BulkUserResult.Status.INVALID, response.getResults().get(2).getStatus());
+    assertEquals(BulkUserResult.Status.INVALID, response.getResults().get(3).getStatus());
+    assertEquals("c@email.com", response.getResults().get(4).getUsername());
+    assertEquals(BulkUserResult.Status.CREATED, response.getResults().get(4).getStatus());
+  }
+
+  @Test
+  @DisplayName("registerAll - JSON roto a mitad del array: procesa lo leído y lo informa truncado")
+  void registerAll_MalformedJson_ProcessesReadItemsAndTruncates() throws Exception {
+    // Arrange
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    when(passwordEncoder.encodeAsync(anyString())).thenReturn(completedFuture("{bcrypt}hash"));
+    InputStream body = new ByteArrayInputStream(("[" + user("a@email.com") + ",{\"username\": oops}]")
+        .getBytes(StandardCharsets.UTF_8));
+
+    // Act
+    BulkRegistrationResponse response = bulkService.registerAll(body);
+
+    // Assert
+    assertEquals(1, response.getCreated());
+    assertTrue(response.isTruncated());
+    BulkUserResult last = response.getResults().get(1);
+    assertEquals(1, last.getIndex());
+    assertEquals(BulkUserResult.Status.INVALID, last.getStatus());
+  }
+
+  @Test
+  @DisplayName("registerAll - un body que no es un array se rechaza sin escribir")
+  void registerAll_NotAnArray_IsRejectedBeforeWriting() {
+    // Arrange
+    InputStream object = new ByteArrayInputStream(user("a@email.com").getBytes(StandardCharsets.UTF_8));
+    InputStream garbage = new ByteArrayInputStream("not json".getBytes(StandardCharsets.UTF_8));
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> bulkService.registerAll(object));
+    assertThrows(IllegalArgumentException.class, () -> bulkService.registerAll(garbage));
+    verifyNoInteractions(passwordEncoder, mongoTemplate);
+  }
+
+  @Test
+  @DisplayName("registerAll - un hash rechazado por el pool saturado queda FAILED y el resto se crea")
+  void registerAll_HashingBusy_ReportsFailedItem() throws Exception {
+    // Arrange
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    when(passwordEncoder.encodeAsync(anyString()))
+        .thenReturn(completedFuture("{bcrypt}hash"))
+        .thenReturn(CompletableFuture.failedFuture(new PasswordHashingBusyException("Password hashing queue is full", 1)));
+
+    // Act
+    BulkRegistrationResponse response = bulkService.registerAll(json(user("a@email.com"), user("b@email.com")));
+
+    // Assert
+    assertEquals(BulkUserResult.Status.CREATED, response.getResults().get(0).getStatus());
+    assertEquals(BulkUserResult.Status.FAILED, response.getResults().get(1).getStatus());
+    verify(passwordEncoder, never()).encode(anyString());
+  }
+
+  @Test
+  @DisplayName("registerAll - cualquier error del hash deja el item FAILED sin cortar el alta")
+  void registerAll_HashingError_ReportsFailedItemAndContinues() throws Exception {
+    // Arrange
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    when(passwordEncoder.encodeAsync(anyString()))
+        .thenReturn(completedFuture("{bcrypt}hash"))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Encoder broken")))
+        .thenReturn(completedFuture("{bcrypt}hash"));
+
+    // Act
+    BulkRegistrationResponse response = bulkService.registerAll(
+        json(user("a@email.com"), user("b@email.com"), user("c@email.com")));
+
+    // Assert
+    assertEquals(3, response.getResults().size());
+    assertEquals(BulkUserResult.Status.CREATED, response.getResults().get(0).getStatus());
+    assertEquals(BulkUserResult.Status.FAILED, response.getResults().get(1).getStatus());
+    assertEquals("Encoder broken", response.getResults().get(1).getMessage());
+    assertEquals(BulkUserResult.Status.CREATED, response.getResults().get(2).getStatus());
+  }
+
+  @Test
+  @DisplayName("updateAll - items por id: un find y un bulkWrite por lote, con estado por item")
+  void updateAll_Items_ReportsEachOutcome() {
+    // Arrange
+    when(mongoTemplate.find(any(Query.class), eq(User.class)))
+        .thenReturn(List.of(stored("1", "a@email.com")));
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    when(bulkOperations.execute()).thenReturn(matched(1));
+    BulkUpdateRequest request = BulkUpdateRequest.builder()
+        .items(List.of(
+            BulkUserPatch.builder().id("1").active(false).build(),
+            BulkUserPatch.builder().id("2").roles(Set.of("ADMIN")).build(),
+            BulkUserPatch.builder().id("3").roles(Set.of("ROOT")).build()))
+        .build();
+
+    // Act
+    BulkUsersResponse response = bulkService.updateAll(request);
+
+    // Assert
+    assertEquals(BulkUserResult.Status.UPDATED, response.getResults().get(0).getStatus());
+    assertEquals("a@email.com", response.getResults().get(0).getUsername());
+    assertEquals(BulkUserResult.Status.NOT_FOUND, response.getResults().get(1).getStatus());
+    assertEquals(BulkUserResult.Status.INVALID, response.getResults().get(2).getStatus());
+    assertEquals(1, response.getSucceeded());
+    verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+    verify(bulkOperations, times(1)).execute();
+    verify(userCacheInvalidator).evictById("1");
+  }
+
+  @Test
+  @DisplayName("updateAll - un username duplicado se informa como conflicto")
+  void updateAll_DuplicateUsername_ReportsConflict() {
+    // Arrange
+    when(mongoTemplate.find(any(Query.class), eq(User.class)))
+        .thenReturn(List.of(stored("1", "a@email.com"), stored("2", "b@email.com")));
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    BulkOperationException duplicate = mock(BulkOperationException.class);
+    when(duplicate.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000", new BsonDocument(), 1)));
+    when(duplicate.getResult()).thenReturn(matched(1));
+    when(bulkOperations.execute()).thenThrow(duplicate);
+    BulkUpdateRequest request = BulkUpdateRequest.builder()
+        .items(List.of(
+            BulkUserPatch.builder().id("1").name("Nuevo").build(),
+            BulkUserPatch.builder().id("2").username("a@email.com").build()))
+        .build();
+
+    // Act
+    BulkUsersResponse response = bulkService.updateAll(request);
+
+    // Assert
+    assertEquals(BulkUserResult.Status.UPDATED, response.getResults().get(0).getStatus());
+    assertEquals(BulkUserResult.Status.CONFLICT, response.getResults().get(1).getStatus());
+    verify(userCacheInvalidator, never()).evictById("2");
+  }
+
+  @Test
+  @DisplayName("updateAll - por filtro recorre los usuarios por lotes con updateMany")
+  void updateAll_Filter_UpdatesInBatches() {
+    // Arrange
+    when(mongoTemplate.find(any(Query.class), eq(User.class)))
+        .thenReturn(List.of(stored("1", "a@email.com"), stored("2", "b@email.com")))
+        .thenReturn(List.of(stored("3", "c@email.com")));
+    when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(User.class)))
+        .thenReturn(UpdateResult.acknowledged(2, 2L, null))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    BulkUpdateRequest request = BulkUpdateRequest.builder()
+        .filter(UserFilter.builder().role("USER").active(true).build())
+        .set(BulkUserPatch.builder().active(false).build())
+        .build();
+
+    // Act
+    BulkUsersResponse response = bulkService.updateAll(request);
+
+    // Assert
+    assertEquals(3, response.getSucceeded());
+    assertFalse(response.isTruncated());
+    // batch-size=2: dos lecturas y dos updateMany
+    verify(mongoTemplate, times(2)).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(User.class));
+    verify(userCacheInvalidator).evict("c@email.com");
+  }
+
+  @Test
+  @DisplayName("updateAll - un filtro vacío o un username por filtro se rechazan")
+  void updateAll_InvalidFilter_Throws() {
+    BulkUpdateRequest emptyFilter = BulkUpdateRequest.builder()
+        .filter(new UserFilter())
+        .set(BulkUserPatch.builder().active(false).build())
+        .build();
+    BulkUpdateRequest usernameByFilter = BulkUpdateRequest.builder()
+        .filter(UserFilter.builder().active(true).build())
+        .set(BulkUserPatch.builder().username("x@email.com").build())
+        .build();
+
+    assertThrows(IllegalArgumentException.class, () -> bulkService.updateAll(emptyFilter));
+    assertThrows(IllegalArgumentException.class, () -> bulkService.updateAll(usernameByFilter));
+    verifyNoInteractions(mongoTemplate);
+  }
+
+  @Test
+  @DisplayName("deleteAll - ids existentes se eliminan en un deleteMany y el resto es NOT_FOUND")
+  void deleteAll_Ids_DeletesExistingOnes() {
+    // Arrange
+    when(mongoTemplate.find(any(Query.class), eq(User.class)))
+        .thenReturn(List.of(stored("1", "a@email.com")));
+    when(mongoTemplate.remove(any(Query.class), eq(User.class))).thenReturn(DeleteResult.acknowledged(1));
+
+    // Act
+    BulkUsersResponse response = bulkService.deleteAll(BulkDeleteRequest.builder().ids(List.of("1", "2")).build());
+
+    // Assert
+    assertEquals(BulkUserResult.Status.DELETED, response.getResults().get(0).getStatus());
+    assertEquals(BulkUserResult.Status.NOT_FOUND, response.getResults().get(1).getStatus());
+    verify(mongoTemplate, times(1)).remove(any(Query.class), eq(User.class));
+    verify(userCacheInvalidator).evict("a@email.com");
+    verify(userCacheInvalidator).evictById("1");
+  }
+
+  @Test
+  @DisplayName("updateAll - items por id: un usuario borrado antes del bulkWrite queda NOT_FOUND")
+  void updateAll_Items_DeletedBeforeWrite_ReportsNotFound() {
+    // Arrange
+    when(mongoTemplate.find(any(Query.class), eq(User.class)))
+        .thenReturn(List.of(stored("1", "a@email.com"), stored("2", "b@email.com")))
+        .thenReturn(List.of(stored("1", "a@email.com")));
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    when(bulkOperations.execute()).thenReturn(matched(1));
+    BulkUpdateRequest request = BulkUpdateRequest.builder()
+        .items(List.of(
+            BulkUserPatch.builder().id("1").active(false).build(),
+            BulkUserPatch.builder().id("2").active(false).build()))
+        .build();
+
+    // Act
+    BulkUsersResponse response = bulkService.updateAll(request);
+
+    // Assert
+    assertEquals(BulkUserResult.Status.UPDATED, response.getResults().get(0).getStatus());
+    assertEquals(BulkUserResult.Status.NOT_FOUND, response.getResults().get(1).getStatus());
+    assertEquals(1, response.getSucceeded());
+  }
+
+  @Test
+  @DisplayName("updateAll - por filtro la escritura repite el filtro e informa los usuarios que no se tocaron")
+  void updateAll_Filter_UsersChangedConcurrently_AreNotReportedAsUpdated() {
+    // Arrange
+    when(mongoTemplate.find(any(Query.class), eq(User.class)))
+        .thenReturn(List.of(stored("1", "a@email.com", 3L), stored("2", "b@email.com", 5L), stored("3", "c@email.com", 1L)))
+        .thenReturn(List.of(stored("1", "a@email.com", 4L), stored("2", "b@email.com", 5L)));
+    when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(User.class)))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    bulkService = new UserBulkServiceImpl(mongoTemplate, new UserMapper() {}, passwordEncoder,
+        userCacheInvalidator, new ObjectMapper(),
+        Validation.buildDefaultValidatorFactory().getValidator(), new UserRoleStorage(false), 5, 10, 1);
+    BulkUpdateRequest request = BulkUpdateRequest.builder()
+        .filter(UserFilter.builder().active(true).build())
+        .set(BulkUserPatch.builder().active(false).build())
+        .build();
+
+    // Act
+    BulkUsersResponse response = bulkService.updateAll(request);
+
+    // Assert
+    ArgumentCaptor<Query> write = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).updateMulti(write.capture(), any(UpdateDefinition.class), eq(User.class));
+    assertEquals(true, write.getValue().getQueryObject().get("active"));
+    assertTrue(write.getValue().getQueryObject().containsKey("_id"));
+    assertEquals(BulkUserResult.Status.UPDATED, response.getResults().get(0).getStatus());
+    assertEquals(BulkUserResult.Status.CONFLICT, response.getResults().get(1).getStatus());
+    assertEquals(BulkUserResult.Status.NOT_FOUND, response.getResults().get(2).getStatus());
+    assertEquals(1, response.getSucceeded());
+  }
+
+  @Test
+  @DisplayName("deleteAll - por filtro un usuario que dejó de cumplirlo no se borra y queda CONFLICT")
+  void deleteAll_Filter_UserNoLongerMatching_IsConflict() {
+    // Arrange
+    when(mongoTemplate.find(any(Query.class), eq(User.class)))
+        .thenReturn(List.of(stored("1", "a@email.com"), stored("2", "b@email.com")))
+        .thenReturn(List.of(stored("2", "b@email.com")))
+        .thenReturn(List.of());
+    when(mongoTemplate.remove(any(Query.class), eq(User.class))).thenReturn(DeleteResult.acknowledged(1));
+
+    // Act
+    BulkUsersResponse response = bulkService.deleteAll(BulkDeleteRequest.builder()
+        .filter(UserFilter.builder().active(false).build())
+        .build());
+
+    // Assert
+    assertEquals(BulkUserResult.Status.DELETED, response.getResults().get(0).getStatus());
+    assertEquals(BulkUserResult.Status.CONFLICT, response.getResults().get(1).getStatus());
+    assertEquals(1, response.getSucceeded());
+  }
+
+  @Test
+  @DisplayName("deleteAll - por filtro un borrado concurrente no se informa como DELETED")
+  void deleteAll_Filter_ConcurrentDelete_IsNotReportedAsDeleted() {
+    // Arrange
+    when(mongoTemplate.find(any(Query.class), eq(User.class)))
+        .thenReturn(List.of(stored("1", "a@email.com"), stored("2", "b@email.com")))
+        .thenReturn(List.of())
+        .thenReturn(List.of());
+    when(mongoTemplate.remove(any(Query.class), eq(User.class))).thenReturn(DeleteResult.acknowledged(1));
+
+    // Act
+    BulkUsersResponse response = bulkService.deleteAll(BulkDeleteRequest.builder()
+        .filter(UserFilter.builder().active(false).build())
+        .build());
+
+    // Assert
+    assertEquals(BulkUserResult.Status.NOT_FOUND, response.getResults().get(0).getStatus());
+    assertEquals(BulkUserResult.Status.NOT_FOUND, response.getResults().get(1).getStatus());
+    assertEquals(0, response.getSucceeded());
+  }
+
+  @Test
+  @DisplayName("deleteAll - ids: si otro request borró alguno antes, no se informan como DELETED")
+  void deleteAll_Ids_ConcurrentDelete_IsNotReportedAsDeleted() {
+    // Arrange
+    when(mongoTemplate.find(any(Query.class), eq(User.class)))
+        .thenReturn(List.of(stored("1", "a@email.com"), stored("2", "b@email.com")));
+    when(mongoTemplate.remove(any(Query.class), eq(User.class))).thenReturn(DeleteResult.acknowledged(1));
+
+    // Act
+    BulkUsersResponse response = bulkService.deleteAll(BulkDeleteRequest.builder().ids(List.of("1", "2")).build());
+
+    // Assert
+    assertEquals(0, response.getSucceeded());
+    assertTrue(response.getResults().stream().allMatch(result -> result.getStatus() == BulkUserResult.Status.NOT_FOUND));
+    verify(userCacheInvalidator).evictById("1");
+    verify(userCacheInvalidator).evictById("2");
+  }
+
+  private static BulkWriteResult matched(int count) {
+    return BulkWriteResult.acknowledged(0, count, 0, count, List.of(), List.of());
+  }
+
+  private static User stored(String id, String username) {
+    return User.builder().id(id).username(username).build();
+  }
+
+  private static User stored(String id, String username, Long version) {
+    return User.builder().id(id).username(username).version(version).build();
+  }
+
+  private static String user(String username) {
+    return "{\"name\":\"Usuario\",\"username\":\"" + username + "\",\"password\":\"password123\",\"roles\":[\"USER\"]}";
+  }
+
+  private static InputStream json(String... users) {
+    return new ByteArrayInputStream(("[" + String.join(",", users) + "]").getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -1,20 +1,54 @@
 package com.alkemy.java2.clase15.services;
 
+import com.alkemy.java2.clase15.authsecurity.service.UserCacheInvalidator;
+import com.alkemy.java2.clase15.dto.UserBatchItem;
 import com.alkemy.java2.clase15.dto.UserDTO;
+import com.alkemy.java2.clase15.dto.UserPage;
+import com.alkemy.java2.clase15.dto.UserPatchRequest;
+import com.alkemy.java2.clase15.dto.VersionedUser;
+import com.alkemy.java2.clase15.enums.Role;
+import com.alkemy.java2.clase15.enums.UserSort;
+import com.alkemy.java2.clase15.exception.UserNotFoundException;
+import com.alkemy.java2.clase15.exception.UserVersionConflictException;
+import com.alkemy.java2.clase15.exception.UsernameAlreadyExistsException;
 import com.alkemy.java2.clase15.mapper.UserMapper;
 import com.alkemy.java2.clase15.model.User;
 import com.alkemy.java2.clase15.repository.UserRepository;
+import com.alkemy.java2.clase15.repository.UserRoleStorage;
+import com.alkemy.java2.clase15.service.impl.UserByIdCache;
 import com.alkemy.java2.clase15.service.impl.UserServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +60,21 @@ class UserServiceImplUnitTest {
   @Mock
   private UserMapper userMapper;
 
+  @Mock
+  private UserCacheInvalidator userCacheInvalidator;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @Mock
+  private PasswordEncoder passwordEncoder;
+
+  @Spy
+  private UserByIdCache userByIdCache = new UserByIdCache(60_000, 100, new SimpleMeterRegistry(), new ObjectMapper());
+
+  @Spy
+  private UserRoleStorage userRoleStorage = new UserRoleStorage(false);
+
   @InjectMocks
   private UserServiceImpl userService;
 
@@ -45,6 +94,14 @@ class UserServiceImplUnitTest {
       .password("admin123")
       .build();
 
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(userService, "defaultPageSize", 2);
+    ReflectionTestUtils.setField(userService, "maxPageSize", 3);
+    ReflectionTestUtils.setField(userService, "exportBatchSize", 100);
+    ReflectionTestUtils.setField(userService, "maxBatchIds", 3);
+  }
+
   @Test
   void getAllUsers_shouldReturnListOfUserDTO() {
     // Arrange
@@ -64,7 +121,7 @@ class UserServiceImplUnitTest {
   void createUser_shouldSaveAndReturnUserDTO() {
     // Arrange
     when(userMapper.toEntity(USER_DTO)).thenReturn(USER);
-    when(userRepository.save(USER)).thenReturn(USER);
+    when(userRepository.insert(USER)).thenReturn(USER);
     when(userMapper.toDTO(USER)).thenReturn(USER_DTO);
 
     // Act
@@ -73,7 +130,18 @@ class UserServiceImplUnitTest {
     // Assert
     assertNotNull(created);
     assertEquals("admin", created.getUsername());
-    verify(userRepository).save(USER);
+    verify(userRepository).insert(USER);
+  }
+
+  @Test
+  void createUser_whenUsernameTaken_shouldThrowUsernameAlreadyExists() {
+    // Arrange
+    when(userMapper.toEntity(USER_DTO)).thenReturn(USER);
+    when(userRepository.insert(USER)).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+    // Act & Assert
+    assertThrows(UsernameAlreadyExistsException.class, () -> userService.createUser(USER_DTO));
+    verifyNoInteractions(userCacheInvalidator);
   }
 
   @Test
@@ -83,14 +151,63 @@ class UserServiceImplUnitTest {
     when(userMapper.toDTO(USER)).thenReturn(USER_DTO);
 
     // Act
-    Optional<UserDTO> result = userService.getUserById(USER_ID);
+    Optional<VersionedUser> result = userService.getUserById(USER_ID);
 
     // Assert
     assertTrue(result.isPresent());
-    assertEquals("admin", result.get().getUsername());
+    assertEquals("admin", result.get().getUser().getUsername());
+    assertNull(result.get().getUser().getPassword());
+    assertNotNull(result.get().getEtag());
     verify(userRepository).findById(USER_ID);
   }
 
+  @Test
+  void getUserById_secondCall_shouldHitCacheWithSameEtag() {
+    // Arrange
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(USER));
+    when(userMapper.toDTO(USER)).thenReturn(USER_DTO);
+
+    // Act
+    String first = userService.getUserById(USER_ID).orElseThrow().getEtag();
+    String second = userService.getUserById(USER_ID).orElseThrow().getEtag();
+
+    // Assert
+    assertEquals(first, second);
+    verify(userRepository, times(1)).findById(USER_ID);
+  }
+
+  @Test
+  void getUserById_mutatingResult_shouldNotChangeCachedUser() {
+    // Arrange
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(USER));
+    when(userMapper.toDTO(USER)).thenReturn(UserDTO.builder().id(USER_ID).username("admin").roles(Set.of("USER")).build());
+    UserDTO first = userService.getUserById(USER_ID).orElseThrow().getUser();
+
+    // Act
+    first.setUsername(null);
+    first.getRoles().clear();
+    UserDTO second = userService.getUserById(USER_ID).orElseThrow().getUser();
+
+    // Assert
+    assertNotSame(first, second);
+    assertEquals("admin", second.getUsername());
+    assertFalse(second.getRoles().isEmpty());
+  }
+
+  @Test
+  void getUserById_whenNotFound_shouldNotCacheMiss() {
+    // Arrange
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+
+    // Act
+    userService.getUserById(USER_ID);
+    Optional<VersionedUser> result = userService.getUserById(USER_ID);
+
+    // Assert
+    assertTrue(result.isEmpty());
+    verify(userRepository, times(2)).findById(USER_ID);
+  }
+
   @Test
   void updateUser_whenExists_shouldUpdateAndReturnDTO() {
     // Arrange
@@ -104,6 +221,8 @@ class UserServiceImplUnitTest {
     // Assert
     assertEquals("usuario administrador", updated.getName());
     verify(userRepository).save(USER);
+    verify(userCacheInvalidator).evict("admin", "admin");
+    verify(userCacheInvalidator).evictById(USER_ID);
   }
 
   @Test
@@ -122,25 +241,314 @@ class UserServiceImplUnitTest {
   @Test
   void deleteUser_whenExists_shouldDeleteUser() {
     // Arrange
-    when(userRepository.existsById(USER_ID)).thenReturn(true);
+    when(userRepository.deleteAndGetUsername(USER_ID))
+        .thenReturn(Optional.of(User.builder().id(USER_ID).username("admin").build()));
 
     // Act
     userService.deleteUser(USER_ID);
 
     // Assert
-    verify(userRepository).deleteById(USER_ID);
+    verify(userRepository).deleteAndGetUsername(USER_ID);
+    verifyNoMoreInteractions(userRepository);
+    verify(userCacheInvalidator).evict("admin");
+    verify(userCacheInvalidator).evictById(USER_ID);
   }
 
   @Test
   void deleteUser_whenNotExists_shouldThrowException() {
     // Arrange
-    when(userRepository.existsById(USER_ID)).thenReturn(false);
+    when(userRepository.deleteAndGetUsername(USER_ID)).thenReturn(Optional.empty());
 
     // Act & Assert
-    RuntimeException ex = assertThrows(RuntimeException.class,
+    UserNotFoundException ex = assertThrows(UserNotFoundException.class,
         () -> userService.deleteUser(USER_ID));
 
     assertEquals("User not found with id: 123", ex.getMessage());
-    verify(userRepository).existsById(USER_ID);
+    assertEquals(0, ex.getStackTrace().length);
+    verify(userRepository).deleteAndGetUsername(USER_ID);
+    verifyNoInteractions(userCacheInvalidator);
+  }
+
+  @Test
+  void getUsers_whenMoreResults_shouldReturnNextCursor() {
+    // Arrange
+    User second = User.builder().id("124").name("b").username("b@email.com").build();
+    User third = User.builder().id("125").name("c").username("c@email.com").build();
+    when(userRepository.findPage(eq(UserSort.ID), isNull(), isNull(), eq(3), anyCollection()))
+        .thenReturn(List.of(USER, second, third));
+    when(userMapper.toDTO(any(User.class))).thenReturn(USER_DTO);
+
+    // Act
+    UserPage page = userService.getUsers(null, null, null, null);
+
+    // Assert
+    assertEquals(2, page.getItems().size());
+    assertNotNull(page.getNextCursor());
+  }
+
+  @Test
+  void getUsers_withCursor_shouldContinueAfterLastUser() {
+    // Arrange
+    User second = User.builder().id("124").name("b").username("b@email.com").build();
+    when(userRepository.findPage(eq(UserSort.USERNAME), isNull(), isNull(), eq(3), anyCollection()))
+        .thenReturn(List.of(USER, second, USER));
+    when(userMapper.toDTO(any(User.class))).thenReturn(USER_DTO);
+    String cursor = userService.getUsers(null, null, "username", null).getNextCursor();
+    when(userRepository.findPage(eq(UserSort.USERNAME), eq("b@email.com"), eq("124"), eq(3), anyCollection()))
+        .thenReturn(List.of());
+
+    // Act
+    UserPage page = userService.getUsers(cursor, null, "username", null);
+
+    // Assert
+    assertTrue(page.getItems().isEmpty());
+    assertNull(page.getNextCursor());
+    verify(userRepository).findPage(eq(UserSort.USERNAME), eq("b@email.com"), eq("124"), eq(3), anyCollection());
+  }
+
+  @Test
+  void getUsers_withCursorOnNullName_shouldKeepNullInsteadOfEmptyString() {
+    // Arrange
+    User unnamed = User.builder().id("124").username("b@email.com").build();
+    when(userRepository.findPage(eq(UserSort.NAME), isNull(), isNull(), eq(3), anyCollection()))
+        .thenReturn(List.of(USER, unnamed, USER));
+    when(userMapper.toDTO(any(User.class))).thenReturn(USER_DTO);
+    String cursor = userService.getUsers(null, null, "name", null).getNextCursor();
+    when(userRepository.findPage(eq(UserSort.NAME), isNull(), eq("124"), eq(3), anyCollection()))
+        .thenReturn(List.of());
+
+    // Act
+    userService.getUsers(cursor, null, "name", null);
+
+    // Assert
+    verify(userRepository).findPage(eq(UserSort.NAME), isNull(), eq("124"), eq(3), anyCollection());
+    verify(userRepository, never()).findPage(eq(UserSort.NAME), eq(""), any(), anyInt(), anyCollection());
+  }
+
+  @Test
+  void searchUsers_withCursor_shouldContinueAfterLastName() {
+    // Arrange
+    User second = User.builder().id("124").name("Juan B").username("b@email.com").build();
+    when(userRepository.search(eq(Role.ADMIN), eq(true), eq("Juan"), isNull(), isNull(), eq(3), anyCollection()))
+        .thenReturn(List.of(USER, second, USER));
+    when(userMapper.toDTO(any(User.class))).thenReturn(USER_DTO);
+    String cursor = userService.searchUsers("Juan", "ADMIN", true, null, null, null).getNextCursor();
+    when(userRepository.search(eq(Role.ADMIN), eq(true), eq("Juan"), eq("Juan B"), eq("124"), eq(3), anyCollection()))
+        .thenReturn(List.of());
+
+    // Act
+    UserPage page = userService.searchUsers("Juan", "ADMIN", true, cursor, null, null);
+
+    // Assert
+    assertTrue(page.getItems().isEmpty());
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  void searchUsers_invalidRole_shouldThrowException() {
+    // Act & Assert
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> userService.searchUsers(null, "ROOT", null, null, null, null));
+    assertEquals("Invalid role: ROOT", ex.getMessage());
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void getUsers_limitAboveMax_shouldBeCapped() {
+    // Arrange
+    when(userRepository.findPage(eq(UserSort.ID), isNull(), isNull(), eq(4), anyCollection()))
+        .thenReturn(List.of());
+
+    // Act
+    userService.getUsers(null, 1_000, "id", null);
+
+    // Assert
+    verify(userRepository).findPage(eq(UserSort.ID), isNull(), isNull(), eq(4), anyCollection());
+  }
+
+  @Test
+  void getUsers_cursorFromOtherSort_shouldThrowException() {
+    // Arrange
+    User second = User.builder().id("124").name("b").username("b@email.com").build();
+    when(userRepository.findPage(eq(UserSort.ID), isNull(), isNull(), eq(3), anyCollection()))
+        .thenReturn(List.of(USER, second, USER));
+    when(userMapper.toDTO(any(User.class))).thenReturn(USER_DTO);
+    String cursor = userService.getUsers(null, null, "id", null).getNextCursor();
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> userService.getUsers(cursor, null, "name", null));
+    assertThrows(IllegalArgumentException.class, () -> userService.getUsers("%%%", null, "id", null));
+  }
+
+  @Test
+  void exportUsers_shouldWriteOneJsonLinePerUserAndCloseCursor() throws Exception {
+    // Arrange
+    AtomicBoolean closed = new AtomicBoolean();
+    User second = User.builder().id("124").name("b").username("b@email.com").build();
+    when(userRepository.streamAll(eq(100), anyCollection())).thenReturn(Stream.of(USER, second).onClose(() -> closed.set(true)));
+    when(userMapper.toDTO(USER)).thenReturn(USER_DTO);
+    when(userMapper.toDTO(second)).thenReturn(UserDTO.builder().id("124").username("b@email.com").build());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // Act
+    long count = userService.exportUsers(out, null);
+
+    // Assert
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, count);
+    assertEquals(2, lines.length);
+    assertEquals("admin", objectMapper.readTree(lines[0]).get("username").asText());
+    assertEquals("b@email.com", objectMapper.readTree(lines[1]).get("username").asText());
+    assertFalse(lines[0].contains("password"));
+    assertTrue(closed.get());
+  }
+
+  @Test
+  void exportUsers_shouldWriteExactNdjsonLinesWithoutFlushingPerUser() throws Exception {
+    // Arrange
+    User first = User.builder().id("1").username("a@email.com").build();
+    User second = User.builder().id("2").username("b@email.com").build();
+    UserDTO firstDto = UserDTO.builder().id("1").username("a@email.com").build();
+    UserDTO secondDto = UserDTO.builder().id("2").username("b@email.com").build();
+    when(userRepository.streamAll(eq(100), anyCollection())).thenReturn(Stream.of(first, second));
+    when(userMapper.toDTO(first)).thenReturn(firstDto);
+    when(userMapper.toDTO(second)).thenReturn(secondDto);
+    AtomicInteger flushes = new AtomicInteger();
+    ByteArrayOutputStream out = new ByteArrayOutputStream() {
+      @Override
+      public void flush() {
+        flushes.incrementAndGet();
+      }
+    };
+
+    // Act
+    userService.exportUsers(out, null);
+
+    // Assert
+    String expected = objectMapper.writeValueAsString(firstDto) + "\n" + objectMapper.writeValueAsString(secondDto) + "\n";
+    assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    // Un único flush, al cerrar el generator
+    assertEquals(1, flushes.get());
+  }
+
+  @Test
+  void getUsers_withFields_shouldProjectAndReturnOnlyRequestedFields() {
+    // Arrange
+    User projected = User.builder().id(USER_ID).name("usuario administrador").build();
+    when(userRepository.findPage(eq(UserSort.ID), isNull(), isNull(), eq(3), eq(Set.of("id", "name"))))
+        .thenReturn(List.of(projected));
+    when(userMapper.toDTO(projected)).thenReturn(UserDTO.builder().id(USER_ID).name("usuario administrador").build());
+
+    // Act
+    UserPage page = userService.getUsers(null, null, "id", "id, name");
+
+    // Assert
+    UserDTO dto = page.getItems().get(0);
+    assertEquals(USER_ID, dto.getId());
+    assertEquals("usuario administrador", dto.getName());
+    assertNull(dto.getUsername());
+    assertNull(dto.getPassword());
+  }
+
+  @Test
+  void getUsers_withUnknownField_shouldThrowException() {
+    assertThrows(IllegalArgumentException.class, () -> userService.getUsers(null, null, "id", "id,password"));
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void getUsersByIds_shouldQueryOnlyUncachedIdsAndKeepRequestOrder() {
+    // Arrange: USER ya está en cache
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(USER));
+    when(userMapper.toDTO(USER)).thenReturn(USER_DTO);
+    userService.getUserById(USER_ID);
+    User other = User.builder().id("456").name("otro").username("otro@email.com").build();
+    when(userRepository.findAllById(Set.of("456", "999"))).thenReturn(List.of(other));
+    when(userMapper.toDTO(other)).thenReturn(UserDTO.builder().id("456").username("otro@email.com").build());
+
+    // Act
+    List<UserBatchItem> result = userService.getUsersByIds(List.of("999", USER_ID, "456"));
+
+    // Assert
+    assertEquals(List.of("999", USER_ID, "456"), result.stream().map(UserBatchItem::getId).toList());
+    assertFalse(result.get(0).isFound());
+    assertNull(result.get(0).getUser());
+    assertEquals("admin", result.get(1).getUser().getUsername());
+    assertEquals("otro@email.com", result.get(2).getUser().getUsername());
+    verify(userRepository).findAllById(Set.of("456", "999"));
+  }
+
+  @Test
+  void getUsersByIds_aboveMax_shouldThrowException() {
+    assertThrows(IllegalArgumentException.class,
+        () -> userService.getUsersByIds(List.of("1", "2", "3", "4")));
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void getUsersByIds_withNullId_shouldThrowException() {
+    assertThrows(IllegalArgumentException.class,
+        () -> userService.getUsersByIds(Arrays.asList("1", null)));
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void patchUser_shouldSetOnlySuppliedFieldsInOneUpdate() {
+    // Arrange
+    User previous = User.builder().id(USER_ID).name("viejo").username("old@email.com").version(2L).build();
+    when(userRepository.updateAndGetPrevious(eq(USER_ID), any(Update.class), isNull()))
+        .thenReturn(Optional.of(previous));
+    when(passwordEncoder.encode("nuevaClave1")).thenReturn("{bcrypt}hash");
+    when(userMapper.toDTO(any(User.class))).thenAnswer(inv -> new UserMapper() {}.toDTO(inv.getArgument(0)));
+
+    // Act
+    UserDTO result = userService.patchUser(USER_ID, UserPatchRequest.builder()
+        .username("new@email.com")
+        .password("nuevaClave1")
+        .build());
+
+    // Assert
+    ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    verify(userRepository).updateAndGetPrevious(eq(USER_ID), update.capture(), isNull());
+    Document set = (Document) update.getValue().getUpdateObject().get("$set");
+    assertEquals(Set.of("username", "password"), set.keySet());
+    assertEquals("{bcrypt}hash", set.get("password"));
+    assertEquals("viejo", result.getName());
+    assertEquals("new@email.com", result.getUsername());
+    assertEquals(3L, result.getVersion());
+    assertNull(result.getPassword());
+    verify(userRepository, never()).save(any());
+    verify(userCacheInvalidator).evict("old@email.com", "new@email.com");
+    verify(userCacheInvalidator).evictById(USER_ID);
+  }
+
+  @Test
+  void patchUser_staleVersion_shouldThrowConflict() {
+    // Arrange
+    when(userRepository.updateAndGetPrevious(eq(USER_ID), any(Update.class), eq(1L))).thenReturn(Optional.empty());
+    when(userRepository.existsById(USER_ID)).thenReturn(true);
+
+    // Act & Assert
+    assertThrows(UserVersionConflictException.class,
+        () -> userService.patchUser(USER_ID, UserPatchRequest.builder().name("x").version(1L).build()));
+    verifyNoInteractions(userCacheInvalidator);
+  }
+
+  @Test
+  void patchUser_whenNotExists_shouldThrowException() {
+    // Arrange
+    when(userRepository.updateAndGetPrevious(eq(USER_ID), any(Update.class), isNull())).thenReturn(Optional.empty());
+
+    // Act & Assert
+    RuntimeException ex = assertThrows(RuntimeException.class,
+        () -> userService.patchUser(USER_ID, UserPatchRequest.builder().name("x").build()));
+    assertEquals("User not found with id: 123", ex.getMessage());
+  }
+
+  @Test
+  void patchUser_withoutFields_shouldThrowException() {
+    assertThrows(IllegalArgumentException.class,
+        () -> userService.patchUser(USER_ID, UserPatchRequest.builder().version(1L).build()));
+    verifyNoInteractions(userRepository);
   }
 }